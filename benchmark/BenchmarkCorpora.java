@@ -0,0 +1,68 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/*
+        Synthetic syllable corpora of any size for the benchmarks, so that they measure the same data on every
+    machine instead of whatever was last scraped. Syllables are drawn from a fixed vocabulary of consonant-vowel
+    shapes with a skewed distribution, a few syllables making up most occurrences the way "tion" and "er" do in the
+    scraped file, and written one occurrence per entry like the scraper writes them.
+*/
+public class BenchmarkCorpora {
+    // Distinct syllables in the real scraped corpus are in the tens of thousands
+    private static final int VOCABULARY_SIZE = 40000;
+    private static final String CONSONANTS = "bcdfghjklmnprstvwyz", VOWELS = "aeiou";
+
+    private static final String[] vocabulary = createVocabulary(new SplittableRandom(1));
+
+    // Writes the given number of syllable occurrences in the ",\n" separated format
+    public static void writeCsv(Path file, int syllables, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            for (int i = 0; i < syllables; i++) {
+                if (i > 0) {
+                    out.write(",\n");
+                }
+                out.write(pickSyllable(random));
+            }
+        }
+    }
+
+    // The same syllables as writeCsv, straight into a pool
+    public static SyllablePool createPool(int syllables, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SyllablePool.Builder builder = new SyllablePool.Builder();
+        for (int i = 0; i < syllables; i++) {
+            builder.add(pickSyllable(random));
+        }
+        return builder.build();
+    }
+
+    private static String pickSyllable(SplittableRandom random) {
+        // Cubing a uniform draw piles most picks onto the start of the vocabulary
+        double skewed = random.nextDouble();
+        return vocabulary[(int) (skewed * skewed * skewed * vocabulary.length)];
+    }
+
+    private static String[] createVocabulary(SplittableRandom random) {
+        String[] words = new String[VOCABULARY_SIZE];
+        StringBuilder syllable = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            syllable.setLength(0);
+            // One to three consonant-vowel pairs, sometimes closed by a consonant
+            for (int pairs = 1 + random.nextInt(3); pairs > 0; pairs--) {
+                syllable.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+                syllable.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+            }
+            if (random.nextBoolean()) {
+                syllable.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+            }
+            words[i] = syllable.toString();
+        }
+        return words;
+    }
+}
@@ -0,0 +1,94 @@
+import benchmarks.Targets;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/*
+        Implements benchmarks.Targets over the generator's classes, which only code in the default package can use
+*/
+public class BenchmarkTargets implements Targets {
+    @Override
+    public void writeCorpora(Path csv, Path countedCsv, Path compiled, int syllables) throws IOException {
+        BenchmarkCorpora.writeCsv(csv, syllables, 42L);
+        SyllablePool pool = SyllablePool.fromCsv(csv.toString());
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(countedCsv, StandardCharsets.UTF_8))) {
+            pool.writeCsv(out, true);
+        }
+        CompiledSyllableCorpus.write(compiled.toString(), new SyllablePool[]{pool, SyllablePool.EMPTY, SyllablePool.EMPTY});
+    }
+
+    @Override
+    public Object parseCsv(String filename) {
+        return SyllablePool.fromCsv(filename);
+    }
+
+    @Override
+    public Object mapCompiled(String filename) throws IOException {
+        return CompiledSyllableCorpus.map(filename);
+    }
+
+    @Override
+    public void useCorpus(int dictionarySyllables, int occasionalSyllables, int mandatorySyllables) {
+        SyllableCorpus.set(new SyllableCorpus(
+                BenchmarkCorpora.createPool(dictionarySyllables, 1L),
+                BenchmarkCorpora.createPool(occasionalSyllables, 2L),
+                BenchmarkCorpora.createPool(mandatorySyllables, 3L)));
+    }
+
+    @Override
+    public void generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency, Blackhole blackhole) {
+        FictionalNameGenerator.generateNames(numberOfWords, minSyllables, maxSyllables, occasionalSyllableFrequency, false,
+                (name, offset, length) -> blackhole.consume(length));
+    }
+
+    @Override
+    public List<String> generateNameList(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency) {
+        return FictionalNameGenerator.generateNames(numberOfWords, minSyllables, maxSyllables, occasionalSyllableFrequency);
+    }
+
+    @Override
+    public Engine createEngine(int threads) {
+        NameGenerationEngine engine = new NameGenerationEngine(threads);
+        return new Engine() {
+            @Override
+            public List<String> generateNames(long seed, int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency) {
+                return engine.generateNames(seed, numberOfWords, minSyllables, maxSyllables, occasionalSyllableFrequency);
+            }
+
+            @Override
+            public void shutdown() {
+                engine.shutdown();
+            }
+        };
+    }
+
+    @Override
+    public PageScraper createPageScraper() {
+        SyllableExtractor extractor = new SyllableExtractor();
+        DictionaryScraper.PageSyllables syllables = new DictionaryScraper.PageSyllables();
+        SyllableAggregator aggregator = new SyllableAggregator();
+
+        return new PageScraper() {
+            @Override
+            public int extract(byte[] page) throws IOException {
+                syllables.clear();
+                return extractor.extract(new ByteArrayInputStream(page), syllables);
+            }
+
+            @Override
+            public int scrape(byte[] page) throws IOException {
+                syllables.clear();
+                extractor.extract(new ByteArrayInputStream(page), syllables);
+                syllables.addTo(aggregator);
+                return syllables.corpusRecord().length + syllables.sequenceRecord().length;
+            }
+        };
+    }
+}
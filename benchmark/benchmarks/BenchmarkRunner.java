@@ -0,0 +1,25 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+        Runs the benchmarks with the GC profiler, so every score comes with its allocation per operation
+    (gc.alloc.rate.norm) next to it. Arguments are regular expressions choosing the benchmarks to run, all of them
+    when there are none.
+        java benchmarks.BenchmarkRunner NameGenerationBenchmark.generateIntoSink
+*/
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(args.length == 0 ? "benchmarks\\." : args[0]);
+        for (int i = 1; i < args.length; i++) {
+            options.include(args[i]);
+        }
+        options.addProfiler(GCProfiler.class);
+        options.shouldFailOnError(true);
+        new Runner(options.build()).run();
+    }
+}
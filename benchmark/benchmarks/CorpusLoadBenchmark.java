@@ -0,0 +1,59 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/*
+        Time and allocation to get a corpus into memory, from the .csv file the scraper writes, from the same
+    syllables written with counts, and from a compiled corpus. The files are written to a temporary folder once per
+    fork, so the first iteration reads them from the page cache like every later one.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CorpusLoadBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int syllables;
+
+    private final Targets targets = Targets.get();
+    private Path folder, csv, countedCsv, compiled;
+
+    @Setup(Level.Trial)
+    public void writeCorpora() throws IOException {
+        folder = Files.createTempDirectory("CorpusLoadBenchmark");
+        csv = folder.resolve("Syllables.csv");
+        countedCsv = folder.resolve("SyllablesCounted.csv");
+        compiled = folder.resolve("Syllables.corpus");
+        targets.writeCorpora(csv, countedCsv, compiled, syllables);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpora() throws IOException {
+        Files.delete(csv);
+        Files.delete(countedCsv);
+        Files.delete(compiled);
+        Files.delete(folder);
+    }
+
+    @Benchmark
+    public Object parseCsv() {
+        return targets.parseCsv(csv.toString());
+    }
+
+    @Benchmark
+    public Object parseCountedCsv() {
+        return targets.parseCsv(countedCsv.toString());
+    }
+
+    @Benchmark
+    public Object mapCompiled() throws IOException {
+        return targets.mapCompiled(compiled.toString());
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+        Names per second from NameGenerationEngine with one thread and more, on the corpus NameGenerationBenchmark
+    uses, to show how far generation scales with cores. Thread counts past the machine's core count only measure
+    oversubscription. Scores are per name.
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineScalingBenchmark {
+    private static final int NAMES_PER_CALL = 200000;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private final Targets targets = Targets.get();
+    private Targets.Engine engine;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void createEngine() {
+        targets.useCorpus(1000000, 200, 0);
+        engine = targets.createEngine(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopEngine() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES_PER_CALL)
+    public List<String> generate() {
+        return engine.generateNames(seed++, NAMES_PER_CALL, 3, 5, 0.0f);
+    }
+}
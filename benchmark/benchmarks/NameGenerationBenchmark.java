@@ -0,0 +1,70 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+        Names per second over syllable ranges and occasional and mandatory syllable settings, on a corpus of a
+    million syllable occurrences. generateNames into a sink should allocate nothing per name and the List version
+    one String per name, while the engine shows how far generation scales over all cores. Scores are per name.
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameGenerationBenchmark {
+    private static final int NAMES_PER_CALL = 10000;
+    private static final int NAMES_PER_PARALLEL_CALL = 200000;
+
+    @Param({"1-3", "2-5", "4-8"})
+    public String syllableRange;
+
+    @Param({"0.0", "0.3"})
+    public float occasionalSyllableFrequency;
+
+    @Param({"false", "true"})
+    public boolean mandatorySyllables;
+
+    private final Targets targets = Targets.get();
+    private int minSyllables, maxSyllables;
+    private Targets.Engine engine;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void createCorpus() {
+        String[] range = syllableRange.split("-");
+        minSyllables = Integer.parseInt(range[0]);
+        maxSyllables = Integer.parseInt(range[1]);
+
+        targets.useCorpus(1000000, 200, mandatorySyllables ? 50 : 0);
+        engine = targets.createEngine(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopEngine() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES_PER_CALL)
+    public void generateIntoSink(Blackhole blackhole) {
+        targets.generateNames(NAMES_PER_CALL, minSyllables, maxSyllables, occasionalSyllableFrequency, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES_PER_CALL)
+    public List<String> generateList() {
+        return targets.generateNameList(NAMES_PER_CALL, minSyllables, maxSyllables, occasionalSyllableFrequency);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES_PER_PARALLEL_CALL)
+    public List<String> generateOnAllCores() {
+        return engine.generateNames(seed++, NAMES_PER_PARALLEL_CALL, minSyllables, maxSyllables, occasionalSyllableFrequency);
+    }
+}
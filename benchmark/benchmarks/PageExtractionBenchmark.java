@@ -0,0 +1,44 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/*
+        Pages per second through what DictionaryScraper does with a page between the HTTP response and the writers,
+    on the saved pages in test/pages: extracting the syllables, building the corpus and sequence records and
+    counting the syllables. extract is the part that reads the page on its own. Run from the project folder, or
+    point -Dbenchmark.pages at the saved pages.
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageExtractionBenchmark {
+    @Param({"adventure.html", "cafe.html", "dictionary.html", "magical.html", "rock-and-roll.html"})
+    public String page;
+
+    private byte[] bytes;
+    private Targets.PageScraper scraper;
+
+    @Setup(Level.Trial)
+    public void readPage() throws IOException {
+        bytes = Files.readAllBytes(Path.of(System.getProperty("benchmark.pages", "test/pages"), page));
+        scraper = Targets.get().createPageScraper();
+    }
+
+    @Benchmark
+    public int extract() throws IOException {
+        return scraper.extract(bytes);
+    }
+
+    @Benchmark
+    public int scrapePage() throws IOException {
+        return scraper.scrape(bytes);
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/*
+        The generator's code as seen by the benchmarks. JMH only accepts benchmarks in a named package, which cannot
+    refer to the generator's classes in the default package, so they are reached through this interface, implemented
+    by BenchmarkTargets in the default package. The JIT inlines the calls through its single implementation.
+*/
+public interface Targets {
+    static Targets get() {
+        try {
+            return (Targets) Class.forName("BenchmarkTargets").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkTargets is not on the class path", e);
+        }
+    }
+
+    // Writes the same syllables as a .csv file, as a .csv file with counts and as a compiled corpus
+    void writeCorpora(Path csv, Path countedCsv, Path compiled, int syllables) throws IOException;
+
+    Object parseCsv(String filename);
+
+    Object mapCompiled(String filename) throws IOException;
+
+    // Makes a synthetic corpus the one generateNames uses
+    void useCorpus(int dictionarySyllables, int occasionalSyllables, int mandatorySyllables);
+
+    void generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency, Blackhole blackhole);
+
+    List<String> generateNameList(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency);
+
+    Engine createEngine(int threads);
+
+    PageScraper createPageScraper();
+
+    interface Engine {
+        List<String> generateNames(long seed, int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency);
+
+        void shutdown();
+    }
+
+    // Everything DictionaryScraper does with a page between the HTTP response and the writers, not thread-safe
+    interface PageScraper {
+        int extract(byte[] page) throws IOException;
+
+        int scrape(byte[] page) throws IOException;
+    }
+}
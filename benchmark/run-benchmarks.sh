@@ -0,0 +1,12 @@
+#!/bin/sh
+# Compiles the generator and the benchmarks, then runs BenchmarkRunner with any arguments given.
+# Expects the JMH jars (jmh-core, jmh-generator-annprocess, jopt-simple, commons-math3) in $JMH_LIB, ~/Downloads by default.
+set -e
+cd "$(dirname "$0")/.."
+JMH_LIB=${JMH_LIB:-$HOME/Downloads}
+CP="$JMH_LIB/jmh-core-1.37.jar:$JMH_LIB/jmh-generator-annprocess-1.37.jar:$JMH_LIB/jopt-simple-5.0.4.jar:$JMH_LIB/commons-math3-3.6.1.jar"
+OUT=out/benchmark
+
+rm -rf "$OUT" && mkdir -p "$OUT"
+javac -encoding UTF-8 -cp "$CP" -d "$OUT" $(find src benchmark -name '*.java')
+java -cp "$OUT:$CP" benchmarks.BenchmarkRunner "$@"
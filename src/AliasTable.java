@@ -0,0 +1,100 @@
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/*
+        Walker's alias method, built with Vose's algorithm, for picking an index with probability proportional to
+    its weight in constant time. Every slot holds its own index and an alias, and a threshold deciding between
+    the two, so a pick is one multiply and at most two table reads however skewed the weights are.
+
+        Thresholds are probabilities scaled to 2^31. Like SyllablePool the tables are buffers so that a compiled
+    corpus can map them straight from disk.
+*/
+public final class AliasTable {
+    private static final double THRESHOLD_SCALE = 0x1p31;
+
+    private final IntBuffer thresholds;
+    private final IntBuffer aliases;
+    private final int size;
+
+    AliasTable(IntBuffer thresholds, IntBuffer aliases) {
+        this.thresholds = thresholds;
+        this.aliases = aliases;
+        this.size = thresholds.limit();
+    }
+
+    // Builds a table from running totals of the weights, as stored by SyllablePool
+    public static AliasTable fromCumulativeWeights(LongBuffer cumulativeWeights) {
+        int size = cumulativeWeights.limit();
+        long[] weights = new long[size];
+        for (int i = 0; i < size; i++) {
+            weights[i] = cumulativeWeights.get(i) - (i == 0 ? 0 : cumulativeWeights.get(i - 1));
+        }
+        return fromWeights(weights);
+    }
+
+    public static AliasTable fromWeights(long[] weights) {
+        int size = weights.length;
+        double total = 0;
+        for (long weight : weights) {
+            total += weight;
+        }
+
+        double[] scaled = new double[size];
+        int[] small = new int[size], large = new int[size];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        int[] thresholds = new int[size], aliases = new int[size];
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount], more = large[--largeCount];
+            thresholds[less] = (int) (scaled[less] * THRESHOLD_SCALE);
+            aliases[less] = more;
+
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is full, only rounding error keeps it from exactly 1
+        while (largeCount > 0) {
+            int full = large[--largeCount];
+            thresholds[full] = Integer.MAX_VALUE;
+            aliases[full] = full;
+        }
+        while (smallCount > 0) {
+            int full = small[--smallCount];
+            thresholds[full] = Integer.MAX_VALUE;
+            aliases[full] = full;
+        }
+        return new AliasTable(IntBuffer.wrap(thresholds), IntBuffer.wrap(aliases));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Maps a uniform random number in [0, 1) to an index: the whole part picks a slot, the fraction picks within it
+    public int pick(double random) {
+        double scaled = random * size;
+        int slot = (int) scaled;
+        return (scaled - slot) * THRESHOLD_SCALE < thresholds.get(slot) ? slot : aliases.get(slot);
+    }
+
+    IntBuffer getThresholds() {
+        return thresholds.duplicate();
+    }
+
+    IntBuffer getAliases() {
+        return aliases.duplicate();
+    }
+}
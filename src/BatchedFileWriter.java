@@ -0,0 +1,211 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/*
+        Appends records to a file from a thread of its own, so that threads producing records never wait on the
+    disk. Records are handed over through a bounded queue, which holds producers back when the disk cannot keep
+    up, and gathered into a large direct buffer that goes to a FileChannel in one write when it is full, when
+    flushIntervalMillis has passed since the last write, or when flush() asks for it. The file is synced to the
+    device every fsyncIntervalMillis, 0 leaving that to close().
+
+        A record is written whole or not at all, with the separator in front of every record but the file's first,
+    so closing drains the queue and never leaves half a record at the end of the file.
+*/
+public class BatchedFileWriter implements Closeable {
+    // Markers passed through the queue in order with the records
+    private static final byte[] FLUSH = new byte[0], CLOSE = new byte[0];
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] separator;
+    private final long flushIntervalNanos, fsyncIntervalNanos;
+    private final BlockingQueue<byte[]> queue;
+    private final Thread thread;
+
+    // Read by other threads only after waiting on the latch handed out with a marker
+    private long position;
+    // Written to the file but not yet synced, only touched by the writer thread
+    private boolean unsynced;
+    private volatile IOException failure;
+    private volatile CountDownLatch flushed;
+    private volatile boolean closed;
+
+    public BatchedFileWriter(Path path, boolean append, byte[] separator, int queueCapacity, int bufferBytes,
+                             long flushIntervalMillis, long fsyncIntervalMillis) throws IOException {
+        channel = append
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        position = channel.size();
+        buffer = ByteBuffer.allocateDirect(bufferBytes);
+        this.separator = separator;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        thread = new Thread(this::run, "BatchedFileWriter-" + path.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Queues a record, waiting while the queue is full
+    public void write(byte[] record) throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+        if (record.length > 0) {
+            put(record);
+        }
+    }
+
+    // Records waiting for the writer thread
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    // Waits until every record queued so far is in the file and returns the file's length
+    public synchronized long flush() throws IOException {
+        flushed = new CountDownLatch(1);
+        put(FLUSH);
+        await(flushed);
+        return position;
+    }
+
+    // Writes out everything still queued, syncs the file and closes it
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flushed = new CountDownLatch(1);
+        put(CLOSE);
+        await(flushed);
+    }
+
+    private void put(byte[] record) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        try {
+            // Gives up if the writer thread fails while the queue is full
+            while (!queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing a record", e);
+        }
+    }
+
+    private void await(CountDownLatch latch) throws IOException {
+        try {
+            while (!latch.await(100, TimeUnit.MILLISECONDS)) {
+                if (failure != null) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the writer", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void run() {
+        long lastWrite = System.nanoTime(), lastSync = lastWrite;
+        boolean running = true;
+
+        while (running) {
+            try {
+                // Sleep until the next record, or until something is due to be written or synced
+                long now = System.nanoTime(), wait = Long.MAX_VALUE;
+                if (buffer.position() > 0) {
+                    wait = lastWrite + flushIntervalNanos - now;
+                }
+                if (unsynced && fsyncIntervalNanos > 0) {
+                    wait = Math.min(wait, lastSync + fsyncIntervalNanos - now);
+                }
+                byte[] record = wait == Long.MAX_VALUE ? queue.take() : queue.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+
+                if (record == CLOSE) {
+                    writeBuffer();
+                    channel.force(true);
+                    channel.close();
+                    running = false;
+                    flushed.countDown();
+                } else if (record == FLUSH) {
+                    writeBuffer();
+                    lastWrite = System.nanoTime();
+                    flushed.countDown();
+                } else if (record != null) {
+                    append(record);
+                }
+
+                now = System.nanoTime();
+                if (running && buffer.position() > 0 && now - lastWrite >= flushIntervalNanos) {
+                    writeBuffer();
+                    lastWrite = now;
+                }
+                if (running && unsynced && fsyncIntervalNanos > 0 && now - lastSync >= fsyncIntervalNanos) {
+                    channel.force(false);
+                    unsynced = false;
+                    lastSync = now;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                failure = e;
+                running = false;
+                // Nobody will write the rest, so release whoever is waiting for it
+                CountDownLatch waiting = flushed;
+                if (waiting != null) {
+                    waiting.countDown();
+                }
+                queue.clear();
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        int length = record.length + (position + buffer.position() > 0 ? separator.length : 0);
+        if (length > buffer.remaining()) {
+            writeBuffer();
+        }
+        if (position + buffer.position() > 0) {
+            buffer.put(separator);
+        }
+        if (record.length > buffer.remaining()) {
+            // Bigger than the whole buffer, goes straight to the file
+            writeBuffer();
+            ByteBuffer wrapped = ByteBuffer.wrap(record);
+            while (wrapped.hasRemaining()) {
+                position += channel.write(wrapped, position);
+            }
+            unsynced = true;
+        } else {
+            buffer.put(record);
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        unsynced |= buffer.position() > 0;
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,112 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/*
+        Fixed-size Bloom filter over 64-bit hashes. Sized from the number of expected entries and the acceptable
+    false positive rate, which for a 1% budget comes to under 10 bits per entry, against the hundred or so bytes
+    per entry of a HashSet<String>. The bit array can live on or off the Java heap. Not thread-safe.
+*/
+public class BloomFilter {
+    private final LongBuffer bits;
+    private final long bitCount;
+    private final int hashCount;
+    private long entries;
+
+    public BloomFilter(long expectedEntries, double falsePositiveRate, boolean offHeap) {
+        if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1, got " + falsePositiveRate);
+        }
+        expectedEntries = Math.max(1, expectedEntries);
+
+        // Standard optimum: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+        long words = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) / 64);
+        if (words > Integer.MAX_VALUE / 8) {
+            throw new IllegalArgumentException("Bloom filter for " + expectedEntries + " entries would be too large");
+        }
+        words = Math.max(1, words);
+        this.bitCount = words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+
+        if (offHeap) {
+            bits = ByteBuffer.allocateDirect((int) words * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+        } else {
+            bits = LongBuffer.allocate((int) words);
+        }
+    }
+
+    // Adds the hash and returns true, or returns false if it was (probably) added before
+    public boolean add(long hash) {
+        long h1 = hash, h2 = mix(hash) | 1;
+        boolean added = false;
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long value = bits.get(word);
+            if ((value & mask) == 0) {
+                bits.put(word, value | mask);
+                added = true;
+            }
+        }
+        if (added) {
+            entries++;
+        }
+        return added;
+    }
+
+    public boolean mightContain(long hash) {
+        long h1 = hash, h2 = mix(hash) | 1;
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    // False positive rate to expect for the next lookup, given how many entries have been added so far
+    public double getCurrentFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * entries / bitCount), hashCount);
+    }
+
+    // 64-bit FNV-1a over the characters, finished with a mixing step so that short inputs spread over all bits
+    public static long hash(char[] chars, int offset, int length) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            h ^= chars[i];
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // Same hash for anything else holding characters, such as URLs
+    public static long hash(CharSequence chars) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            h ^= chars.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
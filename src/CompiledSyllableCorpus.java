@@ -0,0 +1,278 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/*
+        Compiles the three syllable .csv files into one binary corpus file and memory-maps it back. A mapped corpus
+    needs no parsing at all: its syllable pools are views straight into the mapping, so startup is near-instant and
+    every JVM on the machine mapping the same file shares one copy of it in the page cache.
+
+        Layout, all values little-endian:
+        header      int magic "FNGC", int version, int section count, int source count
+        directory   per section: int syllable count, int char count, int longest syllable, int flags,
+                    long data offset, long data length
+        sources     per .csv file compiled from: long length, or -1 if there was no such file, long last modified
+        sections    dictionary, occasional and mandatory syllables, each 8-byte aligned, holding
+                    if flagged as weighted long[count] running occurrence counts, then int[count + 1] offsets,
+                    then if weighted int[count] alias thresholds and int[count] aliases (see AliasTable), then
+                    char[char count] syllable characters
+
+        A corpus compiled from .csv files is up to date for as long as each of them is still there or still missing,
+    with the length and modification time recorded, so an edited, deleted or added file is noticed however soon
+    after compiling it happens. A corpus written straight from pools, as CorpusMerger does, has no sources and is
+    up to date unless one of the files is newer than it.
+*/
+public class CompiledSyllableCorpus {
+    public static final int MAGIC = 0x43474E46; // "FNGC" read as little-endian
+    public static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 16;
+    private static final int DIRECTORY_ENTRY_BYTES = 32;
+    private static final int SOURCE_ENTRY_BYTES = 16;
+    private static final int FLAG_WEIGHTED = 1;
+
+    public static void main(String[] args) {
+        String output = args.length > 0 ? args[0] : FictionalNameGenerator.SYLLABLES_COMPILED_FILENAME;
+        try {
+            SyllableCorpus corpus = compile(output,
+                    FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME,
+                    FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME,
+                    FictionalNameGenerator.SYLLABLES_MANDATORY_FILENAME);
+            System.out.println(String.format("Compiled %d dictionary, %d occasional and %d mandatory syllables into %s",
+                    corpus.getDictionarySyllables().size(), corpus.getOccasionalSyllables().size(),
+                    corpus.getMandatorySyllables().size(), output));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Parses the .csv files and writes them out as a compiled corpus, returning the parsed corpus
+    public static SyllableCorpus compile(String outputFilename, String dictionaryCsv, String occasionalCsv, String mandatoryCsv) throws IOException {
+        // Taken before parsing, so a file changing meanwhile leaves the corpus out of date rather than missing the change
+        long[] sources = sourceStates(dictionaryCsv, occasionalCsv, mandatoryCsv);
+        SyllablePool[] sections = {
+                SyllablePool.fromCsv(dictionaryCsv),
+                SyllablePool.fromCsv(occasionalCsv),
+                SyllablePool.fromCsv(mandatoryCsv)
+        };
+        write(outputFilename, sections, sources);
+        return new SyllableCorpus(sections[0], sections[1], sections[2]);
+    }
+
+    // Writes the pools without any source files, such a corpus is only checked against the age of the .csv files
+    public static void write(String outputFilename, SyllablePool[] sections) throws IOException {
+        write(outputFilename, sections, new long[0]);
+    }
+
+    private static void write(String outputFilename, SyllablePool[] sections, long[] sources) throws IOException {
+        int sourceCount = sources.length / 2;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + sections.length * DIRECTORY_ENTRY_BYTES + sourceCount * SOURCE_ENTRY_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(sections.length).putInt(sourceCount);
+
+        long dataOffset = align(header.capacity());
+        ByteBuffer[] data = new ByteBuffer[sections.length];
+
+        for (int i = 0; i < sections.length; i++) {
+            data[i] = encode(sections[i]);
+            header.putInt(sections[i].size())
+                    .putInt(sections[i].getCharCount())
+                    .putInt(sections[i].getMaxLength())
+                    .putInt(sections[i].isWeighted() ? FLAG_WEIGHTED : 0)
+                    .putLong(dataOffset)
+                    .putLong(data[i].remaining());
+            dataOffset = align(dataOffset + data[i].remaining());
+        }
+        for (long value : sources) {
+            header.putLong(value);
+        }
+        header.flip();
+
+        // Write next to the target and move it into place, so a mapped older version is never overwritten in place
+        Path target = Paths.get(outputFilename).toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header, 0);
+            long position = align(header.capacity());
+            for (ByteBuffer section : data) {
+                int length = section.remaining();
+                writeFully(channel, section, position);
+                position = align(position + length);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static SyllableCorpus map(String filename) throws IOException {
+        MappedByteBuffer mapping;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapping.order(ByteOrder.LITTLE_ENDIAN);
+
+        checkHeader(filename, mapping);
+
+        // A file cut short or damaged anywhere past the header fails here, rather than once names are generated from it
+        SyllablePool[] sections = new SyllablePool[3];
+        for (int i = 0; i < sections.length; i++) {
+            int entry = HEADER_BYTES + i * DIRECTORY_ENTRY_BYTES;
+            int count = mapping.getInt(entry), charCount = mapping.getInt(entry + 4), maxLength = mapping.getInt(entry + 8);
+            boolean weighted = (mapping.getInt(entry + 12) & FLAG_WEIGHTED) != 0;
+            long offset = mapping.getLong(entry + 16), length = mapping.getLong(entry + 24);
+            if (count < 0 || charCount < 0 || maxLength < 0 || length != sectionBytes(count, charCount, weighted)
+                    || offset < 0 || offset > mapping.capacity() - length) {
+                throw new IOException(filename + " is cut short or damaged in corpus section " + i);
+            }
+            try {
+                sections[i] = decode(mapping, count, charCount, maxLength, weighted, (int) offset);
+            } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException(filename + " is damaged in corpus section " + i, e);
+            }
+            if (sections[i].getOffsets().get(count) != charCount) {
+                throw new IOException(filename + " is damaged in corpus section " + i);
+            }
+        }
+        return new SyllableCorpus(sections[0], sections[1], sections[2]);
+    }
+
+    // Checks magic, version and that the directory and source table are all there, returning the source count
+    private static int checkHeader(String filename, ByteBuffer header) throws IOException {
+        if (header.limit() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException(filename + " is not a compiled syllable corpus");
+        }
+        int version = header.getInt(4);
+        if (version != VERSION) {
+            throw new IOException(filename + " has unsupported corpus version " + version);
+        }
+        int sectionCount = header.getInt(8), sourceCount = header.getInt(12);
+        if (sectionCount < 3) {
+            throw new IOException(filename + " has only " + sectionCount + " corpus sections");
+        }
+        if (sourceCount < 0 || header.limit() < headerBytes(sectionCount, sourceCount)) {
+            throw new IOException(filename + " is cut short in its header");
+        }
+        return sourceCount;
+    }
+
+    private static long headerBytes(int sectionCount, int sourceCount) {
+        return HEADER_BYTES + (long) sectionCount * DIRECTORY_ENTRY_BYTES + (long) sourceCount * SOURCE_ENTRY_BYTES;
+    }
+
+    private static long sectionBytes(int count, int charCount, boolean weighted) {
+        return (count + 1L) * 4 + (weighted ? count * 16L : 0) + charCount * 2L;
+    }
+
+    private static ByteBuffer encode(SyllablePool pool) {
+        int count = pool.size();
+        int bytes = (int) sectionBytes(count, pool.getCharCount(), pool.isWeighted());
+        ByteBuffer out = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Longs first, where the section's alignment keeps them aligned
+        if (pool.isWeighted()) {
+            out.asLongBuffer().put(pool.getCumulativeCounts());
+            out.position(count * 8);
+        }
+        out.asIntBuffer().put(pool.getOffsets());
+        out.position(out.position() + (count + 1) * 4);
+        if (pool.isWeighted()) {
+            out.asIntBuffer().put(pool.getAliasTable().getThresholds());
+            out.position(out.position() + count * 4);
+            out.asIntBuffer().put(pool.getAliasTable().getAliases());
+            out.position(out.position() + count * 4);
+        }
+        out.asCharBuffer().put(pool.getChars());
+        out.position(0);
+        return out;
+    }
+
+    private static SyllablePool decode(ByteBuffer mapping, int count, int charCount, int maxLength, boolean weighted, int offset) {
+        int position = offset;
+        LongBuffer cumulativeCounts = null;
+        if (weighted) {
+            cumulativeCounts = slice(mapping, position, count * 8).asLongBuffer();
+            position += count * 8;
+        }
+        IntBuffer offsets = slice(mapping, position, (count + 1) * 4).asIntBuffer();
+        position += (count + 1) * 4;
+
+        AliasTable aliasTable = null;
+        if (weighted) {
+            aliasTable = new AliasTable(slice(mapping, position, count * 4).asIntBuffer(),
+                    slice(mapping, position + count * 4, count * 4).asIntBuffer());
+            position += count * 8;
+        }
+        return new SyllablePool(slice(mapping, position, charCount * 2).asCharBuffer(), offsets, cumulativeCounts, aliasTable, maxLength);
+    }
+
+    private static ByteBuffer slice(ByteBuffer mapping, int offset, int length) {
+        return mapping.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    // Length and last modified time of each file, -1 and 0 for one that does not exist
+    private static long[] sourceStates(String... csvFilenames) {
+        long[] states = new long[csvFilenames.length * 2];
+        for (int i = 0; i < csvFilenames.length; i++) {
+            File csv = new File(csvFilenames[i]);
+            states[i * 2] = csv.exists() ? csv.length() : -1;
+            states[i * 2 + 1] = csv.exists() ? csv.lastModified() : 0;
+        }
+        return states;
+    }
+
+    static boolean isUpToDate(String compiledFilename, String... csvFilenames) {
+        File compiled = new File(compiledFilename);
+        if (!compiled.exists()) {
+            return false;
+        }
+
+        long[] recorded;
+        try (FileChannel channel = FileChannel.open(compiled.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            int sourceCount = checkHeader(compiledFilename, header);
+            if (sourceCount != 0 && sourceCount != csvFilenames.length) {
+                return false;
+            }
+            int sources = (int) headerBytes(header.getInt(8), 0);
+            recorded = new long[sourceCount * 2];
+            for (int i = 0; i < recorded.length; i++) {
+                recorded[i] = header.getLong(sources + i * 8);
+            }
+        } catch (IOException e) {
+            // Not a corpus this version can map, the .csv files are parsed instead
+            return false;
+        }
+
+        if (recorded.length == 0) {
+            for (String csvFilename : csvFilenames) {
+                File csv = new File(csvFilename);
+                if (csv.exists() && csv.lastModified() > compiled.lastModified()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Arrays.equals(recorded, sourceStates(csvFilenames));
+    }
+}
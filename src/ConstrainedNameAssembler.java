@@ -0,0 +1,289 @@
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/*
+        Assembles names meeting a set of NameConstraints, checking them syllable by syllable instead of rejecting
+    finished names. Syllable count and which pool fills each position are drawn as in
+    FictionalNameGenerator.assembleName, then:
+        - Length: every pool's syllables are bucketed by length (SyllableLengthIndex), and a DP over the positions
+    still to fill gives the set of lengths they can add up to, as a bitset. A position only picks from buckets
+    that leave the name able to end within the length range, weighted by how often the syllables occur.
+        - Prefix, suffix, banned substrings: every syllable is checked as it is appended, the prefix against the
+    first characters and banned substrings and suffix by a SubstringAutomaton carried across syllables, so a
+    banned substring straddling two syllables is caught too. A syllable that fails is redrawn; after a few
+    misses every syllable fitting the position is tried, one being picked among those that pass; while the prefix
+    is still being spelled out those are looked up in the pool's SyllableTrie instead of scanned for.
+    A position nothing fits makes the name start over.
+*/
+final class ConstrainedNameAssembler {
+    // Fresh starts on one name before it is given up on as impossible
+    static final int MAX_ATTEMPTS_PER_NAME = 10000;
+    // Random syllables tried at a position before trying them all
+    private static final int RANDOM_TRIES_PER_POSITION = 8;
+
+    private static final int DICTIONARY = 0, OCCASIONAL = 1, MANDATORY = 2;
+
+    private final int minSyllables, maxSyllables;
+    private final float occasionalSyllableFrequency;
+    private final SyllablePool[] pools;
+    private final SyllableLengthIndex[] lengthIndexes;
+
+    private final boolean lengthLimited;
+    private final int minLength, maxLength;
+    private final char[] prefix;
+    // Null when there is neither a suffix nor a banned substring to look for
+    private final SubstringAutomaton automaton;
+    private final boolean needsSuffix;
+
+    // Pool of every position of the name being assembled
+    private final int[] positionPools;
+    // reachable[j] has bit t set if positions j and on can add up to t characters, t up to maxReachable
+    private final long[][] reachable;
+    private final int maxReachable;
+    // State of the automaton after the syllable last accepted by accept()
+    private int acceptedState;
+    // Syllable kept so far while trying every one at a position, the automaton state after it, and the weight of
+    // all that passed
+    private int candidate, candidateState;
+    private long candidateWeight;
+    // Syllables the rest of the prefix starts with, see SyllableTrie.prefixesOf
+    private final int[] prefixSyllables;
+
+    ConstrainedNameAssembler(SyllableCorpus corpus, int minSyllables, int maxSyllables, float occasionalSyllableFrequency,
+                             NameConstraints constraints) {
+        this.minSyllables = minSyllables;
+        this.maxSyllables = maxSyllables;
+        this.occasionalSyllableFrequency = occasionalSyllableFrequency;
+        pools = new SyllablePool[]{corpus.getDictionarySyllables(), corpus.getOccasionalSyllables(), corpus.getMandatorySyllables()};
+        lengthIndexes = new SyllableLengthIndex[pools.length];
+        int longestSyllable = 0;
+        for (int i = 0; i < pools.length; i++) {
+            lengthIndexes[i] = pools[i].getLengthIndex();
+            longestSyllable = Math.max(longestSyllable, pools[i].getMaxLength());
+        }
+
+        lengthLimited = constraints.isLengthLimited();
+        minLength = constraints.getMinLength();
+        maxLength = constraints.getMaxLength();
+        prefix = constraints.getPrefix().toCharArray();
+        needsSuffix = !constraints.getSuffix().isEmpty();
+        automaton = needsSuffix || !constraints.getBannedSubstrings().isEmpty()
+                ? new SubstringAutomaton(constraints.getBannedSubstrings(), constraints.getSuffix()) : null;
+
+        prefixSyllables = new int[prefix.length + 1];
+        positionPools = new int[Math.max(1, maxSyllables)];
+        maxReachable = (int) Math.min(maxLength, (long) Math.max(1, maxSyllables) * longestSyllable);
+        reachable = lengthLimited ? new long[positionPools.length + 1][(maxReachable >>> 6) + 1] : null;
+    }
+
+    // Writes a name meeting the constraints into the buffer and returns its length, or -1 if none was found
+    int assemble(RandomGenerator random, char[] word) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS_PER_NAME; attempt++) {
+            int length = tryAssemble(random, word);
+            if (length >= 0) {
+                return length;
+            }
+        }
+        return -1;
+    }
+
+    private int tryAssemble(RandomGenerator random, char[] word) {
+        int syllablesCount = minSyllables + (int) (random.nextDouble() * (maxSyllables - minSyllables));
+        int mandatoryLocation = (int) (random.nextDouble() * syllablesCount);
+        for (int j = 0; j < syllablesCount; j++) {
+            if (j == mandatoryLocation && !pools[MANDATORY].isEmpty()) {
+                positionPools[j] = MANDATORY;
+            } else if (random.nextFloat() < occasionalSyllableFrequency && !pools[OCCASIONAL].isEmpty()) {
+                positionPools[j] = OCCASIONAL;
+            } else {
+                positionPools[j] = DICTIONARY;
+            }
+        }
+
+        if (lengthLimited) {
+            computeReachable(syllablesCount);
+            if (!anyInRange(reachable[0], minLength, maxLength)) {
+                return -1;
+            }
+        }
+
+        int length = 0, state = SubstringAutomaton.START;
+        for (int j = 0; j < syllablesCount; j++) {
+            SyllablePool pool = pools[positionPools[j]];
+            SyllableLengthIndex index = lengthIndexes[positionPools[j]];
+            boolean last = j == syllablesCount - 1;
+
+            long fittingWeight = 0;
+            for (int bucket = 0; bucket < index.getBucketCount(); bucket++) {
+                if (fits(j, length, index.getLength(bucket))) {
+                    fittingWeight += index.getWeight(bucket);
+                }
+            }
+            if (fittingWeight == 0) {
+                return -1;
+            }
+
+            int chosen = -1, chosenState = 0;
+            for (int i = 0; i < RANDOM_TRIES_PER_POSITION && chosen < 0; i++) {
+                int syllable = index.pick(pickBucket(index, j, length, random.nextDouble() * fittingWeight), random.nextDouble());
+                if (accept(pool, syllable, word, length, state, last)) {
+                    chosen = syllable;
+                    chosenState = acceptedState;
+                }
+            }
+            if (chosen < 0) {
+                // Every fitting syllable that passes, one kept with odds by its weight among those seen so far
+                candidate = -1;
+                candidateWeight = 0;
+                if (length < prefix.length) {
+                    // Only syllables agreeing with the rest of the prefix can pass, which the trie finds without a scan:
+                    // those the rest starts with, and those starting with the rest
+                    SyllableTrie trie = pool.getTrie();
+                    CharBuffer rest = CharBuffer.wrap(prefix, length, prefix.length - length);
+                    int shorter = trie.prefixesOf(rest, 0, prefixSyllables);
+                    for (int i = 0; i < shorter; i++) {
+                        if (pool.length(prefixSyllables[i]) < rest.length()) {
+                            consider(pool, prefixSyllables[i], word, j, length, state, last, random);
+                        }
+                    }
+                    int node = trie.find(rest);
+                    for (int i = node < 0 ? 0 : trie.getRunStart(node); node >= 0 && i < trie.getRunEnd(node); i++) {
+                        consider(pool, trie.getSorted(i), word, j, length, state, last, random);
+                    }
+                } else {
+                    for (int bucket = 0; bucket < index.getBucketCount(); bucket++) {
+                        if (!fits(j, length, index.getLength(bucket))) {
+                            continue;
+                        }
+                        for (int i = index.getStart(bucket); i < index.getEnd(bucket); i++) {
+                            consider(pool, index.getSyllable(i), word, j, length, state, last, random);
+                        }
+                    }
+                }
+                if (candidate < 0) {
+                    return -1;
+                }
+                chosen = candidate;
+                chosenState = candidateState;
+            }
+            length = pool.copyInto(chosen, word, length);
+            state = chosenState;
+        }
+        return length;
+    }
+
+    // Keeps the syllable as the candidate, if it fits and passes, with odds by its weight among those passing so far
+    private void consider(SyllablePool pool, int syllable, char[] word, int j, int length, int state, boolean last,
+                          RandomGenerator random) {
+        if (fits(j, length, pool.length(syllable)) && accept(pool, syllable, word, length, state, last)) {
+            long weight = pool.getCount(syllable);
+            candidateWeight += weight;
+            if (random.nextDouble() * candidateWeight < weight) {
+                candidate = syllable;
+                candidateState = acceptedState;
+            }
+        }
+    }
+
+    // Appends the syllable to the word so far and checks the constraints on it, setting acceptedState if it passes
+    private boolean accept(SyllablePool pool, int syllable, char[] word, int length, int state, boolean last) {
+        int end = pool.copyInto(syllable, word, length);
+        for (int i = length; i < end; i++) {
+            if (i < prefix.length && word[i] != prefix[i]) {
+                return false;
+            }
+            if (automaton != null) {
+                state = automaton.step(state, word[i]);
+                if ((automaton.getFlags(state) & SubstringAutomaton.BANNED) != 0) {
+                    return false;
+                }
+            }
+        }
+        if (last && (end < prefix.length || needsSuffix && (automaton.getFlags(state) & SubstringAutomaton.SUFFIX) == 0)) {
+            return false;
+        }
+        acceptedState = state;
+        return true;
+    }
+
+    // Whether a syllable of the length at position j still lets the name end within the length range
+    private boolean fits(int j, int length, int syllableLength) {
+        if (!lengthLimited) {
+            return true;
+        }
+        int sofar = length + syllableLength;
+        return anyInRange(reachable[j + 1], minLength - sofar, maxLength - sofar);
+    }
+
+    // Bucket the weight falls into, counting only buckets that fit
+    private int pickBucket(SyllableLengthIndex index, int j, int length, double weight) {
+        int last = -1;
+        for (int bucket = 0; bucket < index.getBucketCount(); bucket++) {
+            if (fits(j, length, index.getLength(bucket))) {
+                last = bucket;
+                weight -= index.getWeight(bucket);
+                if (weight < 0) {
+                    return bucket;
+                }
+            }
+        }
+        // Rounding left a sliver of weight over
+        return last;
+    }
+
+    private void computeReachable(int syllablesCount) {
+        long[] none = reachable[syllablesCount];
+        Arrays.fill(none, 0);
+        none[0] = 1;
+        for (int j = syllablesCount - 1; j >= 0; j--) {
+            long[] here = reachable[j];
+            Arrays.fill(here, 0);
+            SyllableLengthIndex index = lengthIndexes[positionPools[j]];
+            for (int bucket = 0; bucket < index.getBucketCount(); bucket++) {
+                orShifted(here, reachable[j + 1], index.getLength(bucket));
+            }
+        }
+    }
+
+    // Sets bit t + shift of target for every bit t of source, dropping those past maxReachable
+    private void orShifted(long[] target, long[] source, int shift) {
+        if (shift > maxReachable) {
+            return;
+        }
+        int wordShift = shift >>> 6, bitShift = shift & 63;
+        for (int i = target.length - 1; i >= wordShift; i--) {
+            long bits = source[i - wordShift] << bitShift;
+            if (bitShift != 0 && i - wordShift - 1 >= 0) {
+                bits |= source[i - wordShift - 1] >>> (64 - bitShift);
+            }
+            target[i] |= bits;
+        }
+        int lastBit = maxReachable & 63;
+        if (lastBit != 63) {
+            target[target.length - 1] &= (1L << (lastBit + 1)) - 1;
+        }
+    }
+
+    // Whether any bit from..to, both inclusive, is set
+    private boolean anyInRange(long[] set, int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(maxReachable, to);
+        if (from > to) {
+            return false;
+        }
+        for (int i = from >>> 6; i <= to >>> 6; i++) {
+            long bits = set[i];
+            if (i == from >>> 6) {
+                bits &= -1L << (from & 63);
+            }
+            if (i == to >>> 6) {
+                bits &= -1L >>> (63 - (to & 63));
+            }
+            if (bits != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+        Combines the partial corpora of a sharded scrape into one. Syllables found by several shards are merged into
+    one entry and their counts added up, whatever format each shard was written in, so the result is written as
+    syllable:count pairs unless --unique asks for every syllable once without counts. An output name ending in
+    .corpus is compiled like CompiledSyllableCorpus does, taking the occasional and mandatory syllables from their
+    usual files.
+        java CorpusMerger SyllablesFromDictionary.csv SyllablesFromDictionary.shard-*.csv
+        java CorpusMerger --sequences SyllableSequencesFromDictionary.csv SyllablesFromDictionary.shard-*.sequences.csv
+    The second form joins the shards' syllable sequence files, whose lines are words and need no merging.
+*/
+public class CorpusMerger {
+    public static void main(String[] args) {
+        boolean unique = false, sequences = false;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--unique")) {
+                unique = true;
+            } else if (arg.equals("--sequences")) {
+                sequences = true;
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.size() < 2) {
+            System.err.println("Usage: java CorpusMerger [--unique] OUTPUT INPUT...");
+            System.err.println("       java CorpusMerger --sequences OUTPUT INPUT...");
+            System.exit(2);
+        }
+
+        String output = files.get(0);
+        List<String> inputs = files.subList(1, files.size());
+        try {
+            if (sequences) {
+                concatenate(output, inputs);
+                System.out.println(String.format("Joined %d sequence files into %s", inputs.size(), output));
+            } else {
+                SyllablePool merged = merge(inputs);
+                if (output.endsWith(".corpus")) {
+                    CompiledSyllableCorpus.write(output, new SyllablePool[]{merged,
+                            SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME),
+                            SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_MANDATORY_FILENAME)});
+                } else {
+                    writeCsv(output, merged, !unique);
+                }
+                System.out.println(String.format("Merged %d files into %s: %d syllables, %d occurrences",
+                        inputs.size(), output, merged.size(), merged.getTotalCount()));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Reads every file into one pool, each syllable once with the sum of its counts
+    public static SyllablePool merge(List<String> inputs) throws IOException {
+        SyllablePool.Builder builder = new SyllablePool.Builder();
+        for (String input : inputs) {
+            try (Reader in = new BufferedReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8))) {
+                builder.addCsv(in);
+            }
+        }
+        return builder.build();
+    }
+
+    public static void writeCsv(String output, SyllablePool pool, boolean withCounts) throws IOException {
+        Path target = Paths.get(output).toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temporary), StandardCharsets.UTF_8))) {
+            pool.writeCsv(out, withCounts);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void concatenate(String output, List<String> inputs) throws IOException {
+        Path target = Paths.get(output).toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+            // Every sequence line ends in a newline, so files can follow each other as they are
+            for (String input : inputs) {
+                Files.copy(Paths.get(input), out);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
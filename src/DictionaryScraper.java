@@ -1,192 +1,752 @@
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
 import javax.swing.*;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.zip.GZIPInputStream;
 
 /*
         Scrapes syllables and writes them to a comma separated output .csv file. Can be terminated and have it's
     write steam closed prematurely at any time.
+
+        Pages are fetched by up to ScrapeSettings.getConcurrency() threads at once, virtual threads where the runtime
+    has them, while a token bucket keeps requests to the site polite. Each page's syllables are collected first and
+    then queued as one record to a BatchedFileWriter per output file, so words from concurrent pages never
+    interleave and fetch threads never wait on the disk.
+    Sitemaps are streamed with StAX and read once, their page URLs going straight to the fetchers, so the number of
+    pages in the dictionary is an estimate that firms up as more of the sitemap is read.
+
+        Progress is recorded in a ScrapeJournal next to the corpus. Every CHECKPOINT_INTERVAL pages the output files
+    are flushed and only then are the pages written since the last checkpoint added to the journal. A run with
+    ScrapeSettings.setResume() appends to the existing corpus, skipping sub-sitemaps and pages the journal already
+    has, so a crash or stopWorking() loses at most the pages since the last checkpoint. With setRevalidate() pages
+    already scraped are requested again with the ETag and Last-Modified they were served with, and only pages that
+    changed since are scraped again. Their new syllables join the deduplicated output, while the sequences file
+    keeps the words they had when first scraped rather than holding them twice.
+
+        Every syllable found is counted in a SyllableAggregator. With ScrapeSettings.setDeduplicate() or
+    setWriteCounts() the output holds each distinct syllable once, rewritten from the aggregator's snapshot at
+    every checkpoint, instead of every occurrence as it is found. The snapshot is staged under the number of the
+    checkpoint it belongs to and only moved over the output once the journal has recorded that checkpoint, so a
+    resumed scrape finishes the move for a checkpoint the journal has and throws away a snapshot for one it lacks.
+
+        Throughput, latencies, errors and queue depths of the current or last scrape are kept in ScraperMetrics,
+    readable through getMetrics() or over JMX. Failed page requests are retried up to ScrapeSettings.getMaxRetries()
+    times with exponential backoff, unless the server answered with a client error such as 404.
 */
 
 // http://www.dictionary.com/dictionary-sitemap/sitemap.xml
 public class DictionaryScraper extends JFrame {
     public static final String DICTIONARY_URL = "http://www.dictionary.com";
+    public static final String SCRAPE_JOURNAL_FILENAME = "SyllablesFromDictionary.journal";
+    // Pages scraped between flushing the output files and recording them in the journal
+    public static final int CHECKPOINT_INTERVAL = 100;
+    // Pages' worth of output that can be waiting for the writers before fetch threads are held back
+    public static final int WRITE_QUEUE_CAPACITY = 1024;
+
+    private static final byte[] CORPUS_SEPARATOR = {',', '\n'};
 
 
-    private static boolean working = false, shouldBeWorking = false;
-    private static int pagesRead, totalPages, totalPagesInDictionary, syllablesFoundSoFar;
+    private static volatile boolean working = false, shouldBeWorking = false;
+    private static volatile int totalPages, totalPagesInDictionary;
+    private static final AtomicInteger pagesRead = new AtomicInteger(), syllablesFoundSoFar = new AtomicInteger();
+    private static volatile ScraperMetrics metrics = new ScraperMetrics();
+    private static final List<ScrapeProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+    // Of the scrape in progress, null between scrapes
+    private static volatile ScrapeProgressPublisher progress;
 
     private static File syllableStore;
-    private static PrintWriter writer;
+    // Each page's syllables go to these as one record, written out on the writers' own threads
+    private static BatchedFileWriter writer, sequenceWriter;
+    // Every syllable found so far with its count, including those of an earlier run when resuming
+    private static volatile SyllableAggregator aggregator;
+    // Set when the output is the aggregator's snapshot rather than every syllable as it is found
+    private static boolean deduplicate, writeCounts;
+    // Shared while pages add their syllables to the aggregator, exclusive while a checkpoint takes its snapshot
+    private static final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private static int pagesSinceCheckpoint;
+    private static ScrapeJournal journal;
+    private static final Object writeLock = new Object();
+
+    // Page parsing state, one per fetch thread and reused for every page it fetches
+    private static final ThreadLocal<SyllableExtractor> syllableExtractors = ThreadLocal.withInitial(SyllableExtractor::new);
+    private static final ThreadLocal<PageSyllables> pageSyllables = ThreadLocal.withInitial(PageSyllables::new);
+
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    static {
+        // Sitemaps are plain XML, there is no reason to resolve anything they might reference
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /*
+            Scrapes from the command line, without the UI, so that shards of one scrape can run as separate processes:
+            java DictionaryScraper --shard 0/4 --shard-by sitemap --concurrency 8 --counts
+        Other options are --url, --shard-by url-hash, --requests-per-second, --limit, --deduplicate, --resume,
+        --revalidate and --output.
+    */
+    public static void main(String[] args) {
+        ScrapeSettings settings = new ScrapeSettings();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--url":
+                        settings.setDictionaryUrl(args[++i]);
+                        break;
+                    case "--shard":
+                        String[] shard = args[++i].split("/");
+                        settings.setShard(Integer.parseInt(shard[0]), Integer.parseInt(shard[1]));
+                        break;
+                    case "--shard-by":
+                        settings.setShardBy(ScrapeSettings.ShardBy.valueOf(args[++i].toUpperCase().replace('-', '_')));
+                        break;
+                    case "--concurrency":
+                        settings.setConcurrency(Integer.parseInt(args[++i]));
+                        break;
+                    case "--requests-per-second":
+                        settings.setRequestsPerSecond(Double.parseDouble(args[++i]));
+                        break;
+                    case "--limit":
+                        settings.setPageLimit(Integer.parseInt(args[++i]));
+                        break;
+                    case "--counts":
+                        settings.setWriteCounts(true);
+                        break;
+                    case "--deduplicate":
+                        settings.setDeduplicate(true);
+                        break;
+                    case "--resume":
+                        settings.setResume(true);
+                        break;
+                    case "--revalidate":
+                        settings.setRevalidate(true);
+                        break;
+                    case "--output":
+                        settings.setOutputFilename(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            settings.checkConsistent();
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java DictionaryScraper [--url U] [--shard I/N] [--shard-by sitemap|url-hash] [--concurrency N] "
+                    + "[--requests-per-second R] [--limit PAGES] [--counts] [--deduplicate] [--resume] [--revalidate] [--output FILE]");
+            System.exit(2);
+        }
+
+        // Progress on stderr once a second, stdout only gets the summary at the end
+        settings.setProgressEventsPerSecond(1);
+        ScrapeProgressListener printer = state -> System.err.println(settings.getOutputFilename() + ": " + state);
+        addProgressListener(printer);
+        generateSyllablesFromWebsiteFile(settings);
+        removeProgressListener(printer);
+        System.out.println(settings.getOutputFilename() + ": " + getMetrics().snapshot());
+    }
 
     public static void generateSyllablesFromWebsiteFile(int scrapePageLimit) {
+        generateSyllablesFromWebsiteFile(scrapePageLimit, false);
+    }
+
+    // With writeCounts set, every syllable is written once, followed by the number of times it was found
+    public static void generateSyllablesFromWebsiteFile(int scrapePageLimit, boolean writeCounts) {
+        generateSyllablesFromWebsiteFile(new ScrapeSettings().setPageLimit(scrapePageLimit).setWriteCounts(writeCounts));
+    }
+
+    // Throws IllegalArgumentException for settings that cannot be used together
+    public static void generateSyllablesFromWebsiteFile(ScrapeSettings settings) {
+        settings.checkConsistent();
         if (!working) {
             working = true;
             shouldBeWorking = true;
-            syllablesFoundSoFar = 0;
-            pagesRead = 0;
-            totalPages = scrapePageLimit;
+            syllablesFoundSoFar.set(0);
+            pagesRead.set(0);
+            totalPages = settings.getPageLimit();
+            pagesSinceCheckpoint = 0;
+            metrics = new ScraperMetrics();
+            metrics.register();
+            ScrapeProgressPublisher publisher = new ScrapeProgressPublisher(progressListeners, DictionaryScraper::readProgress,
+                    settings.getProgressEventsPerSecond());
+            progress = publisher;
+            progressChanged();
             try {
-                syllableStore = new File(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+                syllableStore = new File(settings.getOutputFilename());
+                File sequenceStore = new File(settings.getSequencesFilename());
+                File journalStore = new File(settings.getJournalFilename());
+                boolean resume = settings.isResume() && journalStore.exists();
+
+                if (!resume) {
+                    for (File file : new File[]{syllableStore, sequenceStore, journalStore}) {
+                        if (file.exists()) {
+                            file.delete();
+                        }
+                    }
+                    deleteStagedSnapshots();
+                }
+                journal = ScrapeJournal.open(journalStore.getPath(), settings.isRevalidate());
+                deduplicate = settings.isDeduplicate();
+                writeCounts = settings.isWriteCounts();
+                if (resume) {
+                    // Drop whatever was written after the last checkpoint, those pages get scraped again
+                    if (deduplicate) {
+                        // The last checkpoint is recorded, but its snapshot may not have been moved into place yet
+                        File committed = snapshotFile(journal.getCheckpointCount());
+                        if (committed.exists()) {
+                            Files.move(committed.toPath(), syllableStore.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        }
+                        deleteStagedSnapshots();
+                    } else {
+                        truncate(syllableStore, journal.getCheckpointCorpusBytes());
+                    }
+                    truncate(sequenceStore, journal.getCheckpointSequenceBytes());
+                }
 
-                if (syllableStore.exists()) {
-                    syllableStore.delete();
+                aggregator = new SyllableAggregator();
+                if (resume && syllableStore.exists()) {
+                    try (Reader in = new BufferedReader(new InputStreamReader(new FileInputStream(syllableStore), StandardCharsets.UTF_8))) {
+                        aggregator.addCsv(in);
+                    }
                 }
 
-                writer = new PrintWriter(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME, "UTF-8");
+                // Records carry on after whatever is already there when resuming, with a separator if needed
+                writer = deduplicate ? null : newWriter(syllableStore, resume, CORPUS_SEPARATOR, settings);
+                sequenceWriter = newWriter(sequenceStore, resume, new byte[0], settings);
+
+                scrape(settings);
 
-                scrape(scrapePageLimit, 5);
+                closeWriter();
+                metrics.finish();
 
-                writer.close();
+                // Make the freshly scraped syllables visible to the generator without waiting for the file watcher
+                SyllableCorpus.reload();
 
             } catch (IOException e) {
                 e.printStackTrace();
             }
             working = false;
+            progress = null;
+            publisher.finish();
         }
     }
 
-    private static void scrape(int scrapePageLimit, int delayBetweenPagesMillis) {
+    private static void scrape(ScrapeSettings settings) {
+        // One virtual thread per page when the runtime has them
+        ExecutorService fetchers = VirtualThreads.newPerTaskExecutor("DictionaryScraperFetcher", settings.getConcurrency());
+        Semaphore fetchSlots = new Semaphore(settings.getConcurrency());
+        RateLimiter rateLimiter = settings.getRequestsPerSecond() > 0 ? new RateLimiter(settings.getRequestsPerSecond()) : null;
+        BatchedFileWriter corpusWriter = writer;
+        metrics.setQueueDepthSources(() -> settings.getConcurrency() - fetchSlots.availablePermits(),
+                () -> (corpusWriter == null ? 0 : corpusWriter.getQueueDepth()) + sequenceWriter.getQueueDepth());
+
         try {
 
-            URLConnection robotsTxtConnection = new URL(String.format(DICTIONARY_URL + "/robots.txt")).openConnection();
-            BufferedReader bin = new BufferedReader(new InputStreamReader(robotsTxtConnection.getInputStream()));
+            URLConnection robotsTxtConnection = new URL(settings.getDictionaryUrl() + "/robots.txt").openConnection();
+            BufferedReader bin = new BufferedReader(new InputStreamReader(robotsTxtConnection.getInputStream(), StandardCharsets.UTF_8));
 
             String line, sitemapUrl = "";
 
             while ((line = bin.readLine()) != null) {
-                if (line.contains("sitemap.xml")) {
-                    sitemapUrl = line.substring(line.indexOf("http://"));
+                if (line.contains("sitemap.xml") && line.contains("http")) {
+                    sitemapUrl = line.substring(line.indexOf("http"));
                 }
             }
 
-            URLConnection sitemapConnection = new URL(sitemapUrl).openConnection();
-
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            Document doc = dbFactory.newDocumentBuilder().parse(sitemapConnection.getInputStream());
-            doc.getDocumentElement().normalize();
+            // The index is small, only the sub-sitemaps it points at are streamed
+            List<String> sitemapPageUrlList = new ArrayList<>();
+            try (InputStream in = new URL(sitemapUrl).openConnection().getInputStream()) {
+                XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+                String loc;
+                while ((loc = nextLoc(reader)) != null) {
+                    sitemapPageUrlList.add(loc);
+                }
+                reader.close();
+            }
 
             totalPagesInDictionary = 0;
+            progressChanged();
+            int pagesListed = 0;
 
-            NodeList sitemapPageUrlList = doc.getElementsByTagName("loc");
+            int sitemapsListed = 0;
 
-            boolean countingPages = true;
+            for (int j = 0; j < sitemapPageUrlList.size(); j++) {
+                if (!shouldBeWorking) {
+                    return;
+                }
 
-            for (int i = 0; i < 2; i++) {
-                for (int j = 0; j < sitemapPageUrlList.getLength(); j++) {
-                    if (!shouldBeWorking) {
-                        stopScraping();
-                        return;
-                    }
-                    URLConnection sitemapPageConnection = new URL(String.format(sitemapPageUrlList.item(j).getTextContent())).openConnection();
+                String sitemapPageUrl = sitemapPageUrlList.get(j);
+                if (!settings.includesSitemap(j)) {
+                    continue;
+                }
+                if (!settings.isRevalidate() && journal.isSitemapCompleted(sitemapPageUrl)) {
+                    continue;
+                }
+                SitemapProgress sitemap = new SitemapProgress(sitemapPageUrl);
 
-                    Document sitemapPages = dbFactory.newDocumentBuilder().parse(new GZIPInputStream(sitemapPageConnection.getInputStream()));
-                    sitemapPages.getDocumentElement().normalize();
-                    NodeList zList = sitemapPages.getElementsByTagName("loc");
+                // Each sub-sitemap is read once, page URLs going to the fetchers as soon as they are parsed
+                try (InputStream in = new GZIPInputStream(new CountingInputStream(new URL(sitemapPageUrl).openConnection().getInputStream()))) {
+                    XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+                    String pageUrl;
 
-                    if (countingPages) {
-                        totalPagesInDictionary += zList.getLength();
-                    } else {
-                        for (int k = 0; k < zList.getLength(); k++) {
-                            if (!shouldBeWorking) {
-                                stopScraping();
-                                return;
+                    while ((pageUrl = nextLoc(reader)) != null) {
+                        if (!shouldBeWorking) {
+                            return;
+                        }
+                        pagesListed++;
+                        totalPagesInDictionary = Math.max(totalPagesInDictionary, pagesListed);
+                        if (!settings.includesPage(pageUrl)) {
+                            continue;
+                        }
+
+                        String[] validators = null;
+                        if (journal.isPageCompleted(pageUrl)) {
+                            validators = settings.isRevalidate() ? journal.getValidators(pageUrl) : null;
+                            if (validators == null) {
+                                continue;
                             }
-                            pagesRead++;
-                            scrapeSyllablesOutOfSinglePage(zList.item(k).getTextContent(), delayBetweenPagesMillis);
-                            if (pagesRead >= scrapePageLimit) {
-                                return;
+                        }
+
+                        // Blocks while all fetch slots are busy, so pages are never queued up faster than fetched
+                        fetchSlots.acquire();
+                        pagesRead.incrementAndGet();
+                        progressChanged();
+                        sitemap.pageStarted();
+                        final String url = pageUrl;
+                        final String[] pageValidators = validators;
+                        fetchers.execute(() -> {
+                            boolean completed = false;
+                            try {
+                                completed = scrapeSyllablesOutOfSinglePage(url, rateLimiter, pageValidators, settings);
+                            } finally {
+                                sitemap.pageFinished(completed);
+                                fetchSlots.release();
                             }
+                        });
+                        if (pagesRead.get() >= settings.getPageLimit()) {
+                            return;
                         }
                     }
+                    reader.close();
                 }
-                countingPages = false;
+                sitemap.pageFinished(true);
+
+                // Sub-sitemaps are about the same size, so the ones read so far tell how big the whole dictionary is
+                sitemapsListed++;
+                totalPagesInDictionary = (int) ((long) pagesListed * sitemapPageUrlList.size() / sitemapsListed);
+                progressChanged();
             }
 
         } catch (IOException e) {
             e.printStackTrace();
-        } catch (ParserConfigurationException e) {
+        } catch (XMLStreamException e) {
             e.printStackTrace();
-        } catch (SAXException e) {
+        } catch (InterruptedException e) {
             e.printStackTrace();
+        } finally {
+            // Let pages already being fetched finish writing before the output files are closed
+            fetchers.shutdown();
+            try {
+                fetchers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
         }
     }
 
-    private static void scrapeSyllablesOutOfSinglePage(String inURL, int delayBetweenPagesMillis) {
-        try {
-            BufferedReader in = new BufferedReader(new InputStreamReader(new URL(inURL).openConnection().getInputStream()));
-            char[] unwantedChars = {'<', '>', '(', ')', '/'};
+    // Skips ahead to the next <loc> element and returns its text, or null at the end of the document
+    private static String nextLoc(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("loc")) {
+                return reader.getElementText().trim();
+            }
+        }
+        return null;
+    }
 
-            Thread.sleep((long) (Math.random() * delayBetweenPagesMillis) + delayBetweenPagesMillis);
+    // Returns true once the page is in the output files, or known to be unchanged since it was
+    private static boolean scrapeSyllablesOutOfSinglePage(String inURL, RateLimiter rateLimiter, String[] validators, ScrapeSettings settings) {
+        for (int attempt = 0; shouldBeWorking; attempt++) {
+            Boolean done;
+            try {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+                done = fetchPage(inURL, validators);
+            } catch (IOException e) {
+                metrics.ioError(inURL, e);
+                if (attempt >= settings.getMaxRetries()) {
+                    e.printStackTrace();
+                }
+                done = null;
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                return false;
+            }
 
-            String line;
-            boolean foundSyllables = false;
+            if (done != null) {
+                return done;
+            }
+            if (attempt >= settings.getMaxRetries()) {
+                return false;
+            }
+            metrics.retried();
+            try {
+                Thread.sleep(settings.getRetryBackoffMillis() << Math.min(attempt, 16));
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+        return false;
+    }
 
-            while (!foundSyllables && (line = in.readLine()) != null) {
-                if (line.contains("·")) {
-                    for (String s : line.split("\"")) {
-                        if (s.contains("·")) {
-                            boolean unwantedCharFound = false;
+    // True if the page was scraped or has not changed, false if it cannot be, null if it is worth trying again
+    private static Boolean fetchPage(String inURL, String[] validators) throws IOException {
+        long start = System.nanoTime();
+        URLConnection connection = new URL(inURL).openConnection();
+        if (validators != null) {
+            if (!validators[0].isEmpty()) {
+                connection.setRequestProperty("If-None-Match", validators[0]);
+            }
+            if (!validators[1].isEmpty()) {
+                connection.setRequestProperty("If-Modified-Since", validators[1]);
+            }
+        }
 
-                            for (char c : unwantedChars) {
-                                if (s.contains(String.valueOf(c))) {
-                                    unwantedCharFound = true;
-                                }
-                            }
+        if (connection instanceof HttpURLConnection) {
+            HttpURLConnection http = (HttpURLConnection) connection;
+            int status = http.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                metrics.pageNotModified(System.nanoTime() - start);
+                return true;
+            }
+            if (status >= 400) {
+                metrics.httpError(inURL, status);
+                InputStream error = http.getErrorStream();
+                if (error != null) {
+                    error.close();
+                }
+                // Overloaded or failing servers may recover, missing pages will not
+                return status == 429 || status >= 500 ? null : false;
+            }
+        }
+        String etag = connection.getHeaderField("ETag"), lastModified = connection.getHeaderField("Last-Modified");
+        long fetched = System.nanoTime();
 
-                            if (!unwantedCharFound) {
-                                for (String t : s.split("·|\\ |\\-")) {
-                                    for (char c : t.toCharArray()) {
-                                        if (!Character.isLetter(c)) {
-                                            unwantedCharFound = true;
-                                        }
-                                    }
-
-                                    if (!unwantedCharFound) {
-                                        t = sanitizeString(t);
-                                        if (t.length() > 0) {
-                                            if (syllablesFoundSoFar > 0) {
-                                                writer.write(",\n");
-                                            }
-                                            writer.write(t);
-                                            syllablesFoundSoFar++;
-                                        }
-                                    }
-                                }
-                            }
-                        }
+        PageSyllables page = pageSyllables.get();
+        page.clear();
+        try (InputStream in = new CountingInputStream(connection.getInputStream())) {
+            syllableExtractors.get().extract(in, page);
+        }
+        long read = System.nanoTime();
+
+        boolean written = writeWords(page, inURL, etag, lastModified, validators != null);
+        metrics.pageFetched(fetched - start, read - fetched, System.nanoTime() - read);
+        return written;
+    }
+
+    // Returns false if the page's syllables could not be handed to the writers. A page scraped before only adds its
+    // syllables, its words are already in the sequences file.
+    private static boolean writeWords(PageSyllables page, String url, String etag, String lastModified, boolean rescraped) {
+        boolean checkpointDue;
+        checkpointLock.readLock().lock();
+        try {
+            // Counting is striped, so pages finishing at the same time mostly count in parallel
+            page.addTo(aggregator);
+            syllablesFoundSoFar.addAndGet(page.syllableCount);
+            progressChanged();
+            metrics.syllablesFound(page.syllableCount);
+
+            // Queued as whole records, so words from pages finishing at the same time never interleave
+            if (writer != null) {
+                writer.write(page.corpusRecord());
+            }
+            if (!rescraped) {
+                sequenceWriter.write(page.sequenceRecord());
+            }
+
+            synchronized (writeLock) {
+                journal.pageCompleted(url, etag, lastModified);
+                checkpointDue = ++pagesSinceCheckpoint >= CHECKPOINT_INTERVAL;
+            }
+        } catch (IOException e) {
+            // The page stays out of the journal, a resumed scrape fetches it again
+            e.printStackTrace();
+            return false;
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+
+        if (checkpointDue) {
+            checkpointLock.writeLock().lock();
+            try {
+                synchronized (writeLock) {
+                    // Another page may have got here first
+                    if (pagesSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+                        checkpoint();
                     }
-                    foundSyllables = true;
                 }
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+        }
+        return true;
+    }
+
+    /*
+            Gets everything written so far onto disk, then records it in the journal. Called holding both
+        checkpointLock for writing and writeLock, so that the snapshot has every journalled page and nothing more.
+    */
+    private static void checkpoint() {
+        try {
+            if (deduplicate) {
+                File snapshot = snapshotFile(journal.getCheckpointCount() + 1);
+                aggregator.writeSnapshot(snapshot, writeCounts);
+                journal.checkpoint(snapshot.length(), sequenceWriter.flush());
+                Files.move(snapshot.toPath(), syllableStore.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                journal.checkpoint(writer.flush(), sequenceWriter.flush());
             }
+            pagesSinceCheckpoint = 0;
         } catch (IOException e) {
             e.printStackTrace();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
         }
     }
 
-    private static String sanitizeString(String in) {
-        String out = "";
-        for (int i = 0; i < in.length(); i++) {
-            char c = in.charAt(i);
-            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
-                out += c;
+    private static BatchedFileWriter newWriter(File file, boolean append, byte[] separator, ScrapeSettings settings) throws IOException {
+        return new BatchedFileWriter(file.toPath(), append, separator, WRITE_QUEUE_CAPACITY,
+                settings.getWriteBufferBytes(), settings.getFlushIntervalMillis(), settings.getFsyncIntervalMillis());
+    }
+
+    // Where the aggregator's snapshot for a checkpoint waits until the journal has recorded that checkpoint
+    private static File snapshotFile(long checkpoint) {
+        return new File(syllableStore.getPath() + ".snapshot-" + checkpoint);
+    }
+
+    private static void deleteStagedSnapshots() {
+        String prefix = syllableStore.getName() + ".snapshot-";
+        File[] staged = syllableStore.getAbsoluteFile().getParentFile().listFiles((directory, name) -> name.startsWith(prefix));
+        if (staged != null) {
+            for (File file : staged) {
+                file.delete();
+            }
+        }
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            }
+        }
+    }
+
+    // Writes out a last checkpoint and closes the output files. Safe to call more than once.
+    private static void closeWriter() {
+        checkpointLock.writeLock().lock();
+        try {
+            synchronized (writeLock) {
+                if (journal == null) {
+                    return;
+                }
+                checkpoint();
+                // Drains whatever is still queued, records are never cut short
+                try {
+                    if (writer != null) {
+                        writer.close();
+                    }
+                    sequenceWriter.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                journal.close();
+                journal = null;
             }
+        } finally {
+            checkpointLock.writeLock().unlock();
         }
-        return out.toLowerCase().trim();
     }
 
-    private static void stopScraping() {
-        working = false;
-        writer.close();
+    // Adds up the bytes read from the site in the metrics
+    private static class CountingInputStream extends FilterInputStream {
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                metrics.bytesDownloaded(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                metrics.bytesDownloaded(read);
+            }
+            return read;
+        }
+    }
+
+    /*
+            Syllables of one page as the extractor finds them, written out together once the page is done so that
+        words from pages fetched at the same time never interleave. Each fetch thread reuses its own.
+    */
+    static class PageSyllables implements SyllableExtractor.Listener {
+        private char[] chars = new char[256];
+        private int charCount;
+        // Where every syllable ends in chars, and how many syllables there are up to the end of every word
+        private int[] syllableEnds = new int[64];
+        private int[] wordEnds = new int[16];
+        private int syllableCount, wordCount;
+
+        void clear() {
+            charCount = 0;
+            syllableCount = 0;
+            wordCount = 0;
+        }
+
+        // The page's syllables in the corpus format, separated by ",\n". Syllables are a-z only, one byte each.
+        byte[] corpusRecord() {
+            int length = Math.max(0, charCount + 2 * (syllableCount - 1));
+            byte[] record = new byte[length];
+            int position = 0;
+            for (int i = 0; i < syllableCount; i++) {
+                if (i > 0) {
+                    record[position++] = ',';
+                    record[position++] = '\n';
+                }
+                for (int c = start(i); c < syllableEnds[i]; c++) {
+                    record[position++] = (byte) chars[c];
+                }
+            }
+            return record;
+        }
+
+        // One line per word, its syllables in order separated by commas, for SyllableTransitionModel
+        byte[] sequenceRecord() {
+            byte[] record = new byte[charCount + syllableCount];
+            int position = 0, i = 0;
+            for (int w = 0; w < wordCount; w++) {
+                for (int first = i; i < wordEnds[w]; i++) {
+                    if (i > first) {
+                        record[position++] = ',';
+                    }
+                    for (int c = start(i); c < syllableEnds[i]; c++) {
+                        record[position++] = (byte) chars[c];
+                    }
+                }
+                record[position++] = '\n';
+            }
+            return record;
+        }
+
+        void addTo(SyllableAggregator aggregator) {
+            for (int i = 0; i < syllableCount; i++) {
+                aggregator.add(chars, start(i), length(i));
+            }
+        }
+
+        int start(int syllable) {
+            return syllable == 0 ? 0 : syllableEnds[syllable - 1];
+        }
+
+        int length(int syllable) {
+            return syllableEnds[syllable] - start(syllable);
+        }
+
+        @Override
+        public void syllable(char[] syllable, int offset, int length) {
+            if (charCount + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+            }
+            System.arraycopy(syllable, offset, chars, charCount, length);
+            charCount += length;
+            if (syllableCount == syllableEnds.length) {
+                syllableEnds = Arrays.copyOf(syllableEnds, syllableCount * 2);
+            }
+            syllableEnds[syllableCount++] = charCount;
+        }
+
+        @Override
+        public void endOfWord() {
+            if (wordCount == wordEnds.length) {
+                wordEnds = Arrays.copyOf(wordEnds, wordCount * 2);
+            }
+            wordEnds[wordCount++] = syllableCount;
+        }
+    }
+
+    /*
+            Pages of one sub-sitemap still being fetched. The sub-sitemap is recorded as completed once it has been
+        read to the end and all of its pages have been scraped; a page that failed keeps it out of the journal so
+        that a resumed scrape goes through it again.
+    */
+    private static class SitemapProgress {
+        private final String url;
+        // Starts at one for the sub-sitemap itself being read
+        private final AtomicInteger unfinished = new AtomicInteger(1);
+        private volatile boolean failed;
+
+        SitemapProgress(String url) {
+            this.url = url;
+        }
+
+        void pageStarted() {
+            unfinished.incrementAndGet();
+        }
+
+        void pageFinished(boolean completed) {
+            if (!completed) {
+                failed = true;
+            }
+            if (unfinished.decrementAndGet() == 0 && !failed) {
+                synchronized (writeLock) {
+                    if (journal != null) {
+                        journal.sitemapCompleted(url);
+                    }
+                }
+            }
+        }
+    }
+
+    // Listeners are kept across scrapes and told about every scrape from the moment it starts
+    public static void addProgressListener(ScrapeProgressListener listener) {
+        progressListeners.add(listener);
+    }
+
+    public static void removeProgressListener(ScrapeProgressListener listener) {
+        progressListeners.remove(listener);
+    }
+
+    private static void progressChanged() {
+        ScrapeProgressPublisher publisher = progress;
+        if (publisher != null) {
+            publisher.changed();
+        }
+    }
+
+    private static ScrapeProgress readProgress(boolean finished) {
+        return new ScrapeProgress(pagesRead.get(), totalPages, totalPagesInDictionary, syllablesFoundSoFar.get(),
+                getUniqueSyllablesFoundSoFar(), finished);
     }
 
     public static boolean isWorking() {
@@ -196,7 +756,7 @@ public class DictionaryScraper extends JFrame {
     public static void stopWorking() { shouldBeWorking = false; }
 
     public static int getPagesRead() {
-        return pagesRead;
+        return pagesRead.get();
     }
 
     public static int getTotalPages() {
@@ -207,5 +767,16 @@ public class DictionaryScraper extends JFrame {
         return totalPagesInDictionary;
     }
 
-    public static int getSyllablesFoundSoFar() { return syllablesFoundSoFar; }
+    public static int getSyllablesFoundSoFar() { return syllablesFoundSoFar.get(); }
+
+    // Metrics of the scrape in progress, or of the last one
+    public static ScraperMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Distinct syllables in the output so far, including those kept from an earlier run when resuming
+    public static int getUniqueSyllablesFoundSoFar() {
+        SyllableAggregator current = aggregator;
+        return current == null ? 0 : current.getUniqueCount();
+    }
 }
@@ -1,10 +1,13 @@
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /*
-        Parses .csv files into string arrays and creates words, randomly using the elements as syllables
+        Creates words, randomly using the syllables of the in-memory SyllableCorpus parsed from the .csv files
  */
 public class FictionalNameGenerator {
     // Contains the base syllables from which words are built
@@ -19,55 +22,156 @@ public class FictionalNameGenerator {
     // This file is optional
     public static final String SYLLABLES_MANDATORY_FILENAME = "SyllablesMandatory.csv";
 
+    // The syllables of each scraped word on one line, separated by commas, written by the web scraper
+    // Only needed by SyllableTransitionModel
+    public static final String SYLLABLE_SEQUENCES_FILENAME = "SyllableSequencesFromDictionary.csv";
 
+    // Binary form of the three files above, written by CompiledSyllableCorpus and memory-mapped instead of parsed
+    // This file is optional and is ignored while any of the .csv files is newer than it
+    public static final String SYLLABLES_COMPILED_FILENAME = "Syllables.corpus";
 
-    private static List<String> getSyllablesFromCsv(String filename) {
-        List<String> syllables = new ArrayList<>();
 
-        try {
 
-            if (new File(filename).exists()) {
-                Scanner scanner = new Scanner(new File(filename));
-                scanner.useDelimiter(",\n");
+    // Reused by every name generated on a thread, grown when a longer word could be assembled
+    private static final ThreadLocal<char[]> wordBuffer = ThreadLocal.withInitial(() -> new char[64]);
 
-                while (scanner.hasNext()) {
-                    String s = scanner.next();
-                    syllables.add(s);
-                }
-                scanner.close();
+    public static List<String> generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency)  {
+        return generateNames(numberOfWords, minSyllables, maxSyllables, occasionalSyllableFrequency, false);
+    }
+
+    public static List<String> generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency, boolean capitalise) {
+        List<String> wordsOut = new ArrayList<String>(numberOfWords);
+        generateNames(numberOfWords, minSyllables, maxSyllables, occasionalSyllableFrequency, capitalise,
+                (name, offset, length) -> wordsOut.add(new String(name, offset, length)));
+        return wordsOut;
+    }
+
+    // Hands every name to the sink without allocating; the sink decides whether a name is worth a String
+    public static void generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency, boolean capitalise, NameSink sink) {
+        //occasionalSyllableFrequency = Math.max(0.0f, Math.min(1.0f, occasionalSyllableFrequency));
+        SyllableCorpus corpus = SyllableCorpus.get();
+        char[] word = getWordBuffer(corpus, maxSyllables);
+        RandomGenerator random = ThreadLocalRandom.current();
+
+        for (int i = 0; i < numberOfWords; i++) {
+            int length = assembleName(corpus, minSyllables, maxSyllables, occasionalSyllableFrequency, random, word);
+            if (capitalise && length > 0) {
+                word[0] = Character.toUpperCase(word[0]);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            sink.accept(word, 0, length);
         }
-        return syllables;
     }
 
-    public static List<String> generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency)  {
-        //occasionalSyllableFrequency = Math.max(0.0f, Math.min(1.0f, occasionalSyllableFrequency));
-        List<String> wordsOut = new ArrayList<String>();
-        List<String> syllables = getSyllablesFromCsv(SYLLABLES_FROM_WEBSITE_FILENAME);
-        List<String> occasionalSyllables = getSyllablesFromCsv(SYLLABLES_OCCASIONAL_FILENAME);
-        List<String> mandatorySyllables = getSyllablesFromCsv(SYLLABLES_MANDATORY_FILENAME);
+    // Names meeting the constraints, fewer than asked for if they can hardly or never be met, see NameConstraints
+    public static List<String> generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency,
+                                             boolean capitalise, NameConstraints constraints) {
+        List<String> wordsOut = new ArrayList<String>(numberOfWords);
+        generateNames(numberOfWords, minSyllables, maxSyllables, occasionalSyllableFrequency, capitalise, constraints,
+                (name, offset, length) -> wordsOut.add(new String(name, offset, length)));
+        return wordsOut;
+    }
+
+    // Builds every name to meet the constraints instead of filtering them afterwards, see ConstrainedNameAssembler.
+    // Returns the number of names handed to the sink, which stops short once a name could not be found in
+    // ConstrainedNameAssembler.MAX_ATTEMPTS_PER_NAME fresh starts.
+    public static int generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency,
+                                    boolean capitalise, NameConstraints constraints, NameSink sink) {
+        SyllableCorpus corpus = SyllableCorpus.get();
+        char[] word = getWordBuffer(corpus, maxSyllables);
+        RandomGenerator random = ThreadLocalRandom.current();
+        ConstrainedNameAssembler assembler = new ConstrainedNameAssembler(corpus, minSyllables, maxSyllables,
+                occasionalSyllableFrequency, constraints);
 
         for (int i = 0; i < numberOfWords; i++) {
-            int syllablesCount = minSyllables + (int) (Math.random() * (maxSyllables - minSyllables));
-            int customSyllableLocation = (int) (Math.random() * syllablesCount);
-            String word = "";
+            int length = assembler.assemble(random, word);
+            if (length < 0) {
+                return i;
+            }
+            if (capitalise && length > 0) {
+                word[0] = Character.toUpperCase(word[0]);
+            }
+            sink.accept(word, 0, length);
+        }
+        return numberOfWords;
+    }
 
-            for (int j = 0; j < syllablesCount; j++) {
-                float occasionalSyllableOdds = (float)Math.random();
+    // Lazily generates names as the stream is consumed, holding only one word at a time
+    public static Stream<String> streamNames(long numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency) {
+        return StreamSupport.stream(new NameSpliterator(SyllableCorpus.get(), numberOfWords, minSyllables, maxSyllables,
+                occasionalSyllableFrequency, false, new SplittableRandom()), false);
+    }
 
+    public static Iterator<String> iterateNames(long numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency) {
+        return Spliterators.iterator(new NameSpliterator(SyllableCorpus.get(), numberOfWords, minSyllables, maxSyllables,
+                occasionalSyllableFrequency, false, new SplittableRandom()));
+    }
+
+    // Writes one name per line, straight from the word buffer, without creating any Strings
+    public static void writeNames(Appendable out, long numberOfWords, int minSyllables, int maxSyllables,
+                                  float occasionalSyllableFrequency, boolean capitalise) throws IOException {
+        SyllableCorpus corpus = SyllableCorpus.get();
+        char[] word = getWordBuffer(corpus, maxSyllables);
+        RandomGenerator random = ThreadLocalRandom.current();
 
-                if (j == customSyllableLocation && mandatorySyllables.size() > 0) {
-                    word += mandatorySyllables.get((int) (Math.random() * (mandatorySyllables.size())));
-                } else if (occasionalSyllableOdds < occasionalSyllableFrequency && occasionalSyllables.size() > 0) {
-                    word += occasionalSyllables.get((int) (Math.random() * occasionalSyllables.size()));
-                } else {
-                    word += syllables.get((int) (Math.random() * syllables.size()));
+        for (long i = 0; i < numberOfWords; i++) {
+            int length = assembleName(corpus, minSyllables, maxSyllables, occasionalSyllableFrequency, random, word);
+            if (capitalise && length > 0) {
+                word[0] = Character.toUpperCase(word[0]);
+            }
+
+            if (out instanceof Writer) {
+                ((Writer) out).write(word, 0, length);
+            } else {
+                for (int j = 0; j < length; j++) {
+                    out.append(word[j]);
                 }
             }
-            wordsOut.add(word);
+            out.append('\n');
         }
-        return wordsOut;
+    }
+
+    // Writes one word into the buffer and returns its length
+    static int assembleName(SyllableCorpus corpus, int minSyllables, int maxSyllables, float occasionalSyllableFrequency,
+                            RandomGenerator random, char[] word) {
+        SyllablePool syllables = corpus.getDictionarySyllables();
+        SyllablePool occasionalSyllables = corpus.getOccasionalSyllables();
+        SyllablePool mandatorySyllables = corpus.getMandatorySyllables();
+
+        int syllablesCount = minSyllables + (int) (random.nextDouble() * (maxSyllables - minSyllables));
+        int customSyllableLocation = (int) (random.nextDouble() * syllablesCount);
+        int length = 0;
+
+        for (int j = 0; j < syllablesCount; j++) {
+            float occasionalSyllableOdds = random.nextFloat();
+
+
+            if (j == customSyllableLocation && !mandatorySyllables.isEmpty()) {
+                length = mandatorySyllables.copyInto(mandatorySyllables.pick(random.nextDouble()), word, length);
+            } else if (occasionalSyllableOdds < occasionalSyllableFrequency && !occasionalSyllables.isEmpty()) {
+                length = occasionalSyllables.copyInto(occasionalSyllables.pick(random.nextDouble()), word, length);
+            } else {
+                length = syllables.copyInto(syllables.pick(random.nextDouble()), word, length);
+            }
+        }
+        return length;
+    }
+
+    // Buffer of the calling thread, only to be used on it
+    static char[] getWordBuffer(SyllableCorpus corpus, int maxSyllables) {
+        int capacity = getWordCapacity(corpus, maxSyllables);
+
+        char[] word = wordBuffer.get();
+        if (word.length < capacity) {
+            word = new char[capacity];
+            wordBuffer.set(word);
+        }
+        return word;
+    }
+
+    // Longest word that can be assembled from the corpus with at most maxSyllables syllables
+    static int getWordCapacity(SyllableCorpus corpus, int maxSyllables) {
+        int longestSyllable = Math.max(corpus.getDictionarySyllables().getMaxLength(),
+                Math.max(corpus.getOccasionalSyllables().getMaxLength(), corpus.getMandatorySyllables().getMaxLength()));
+        return Math.max(1, maxSyllables) * longestSyllable;
     }
 }
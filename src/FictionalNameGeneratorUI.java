@@ -10,6 +10,8 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /*
         User interface for the name generator. Checks if the syllable store files are present,
@@ -21,6 +23,8 @@ import java.util.Hashtable;
 public class FictionalNameGeneratorUI extends JFrame {
     private int minSyllables = 3, maxSyllables = 5;
     private final int wordsToGenerate = 10, significantFigures = 6;
+    // Enough to scroll through, and still only a few hundred megabytes in the list model
+    private final int maxWordsToGenerate = 10000000;
     private float customSyllableFrequency = 0.0f;
 
     private JPanel mainPanel = new JPanel(new GridBagLayout(), false);
@@ -36,12 +40,17 @@ public class FictionalNameGeneratorUI extends JFrame {
     private JTextField tfScrapeLimit = new JTextField();
     private JLabel lScrapeProgress = new JLabel("");
 
+    private JLabel lNameCount = new JLabel("Names to generate: ");
+    private JTextField tfNameCount = new JTextField(String.valueOf(wordsToGenerate));
     private JButton bGenerate = new JButton("Generate");
+    private JLabel lGenerateProgress = new JLabel("");
     private JButton bExit = new JButton("Exit");
     private JSlider sMinSyllables = new JSlider(1, 10, 3);
     private JSlider sMaxSyllables = new JSlider(1, 10, 5);
     private JSlider sCustomSyllableFrequency = new JSlider(0, Integer.MAX_VALUE, Integer.MAX_VALUE / 2);
-    private JTextArea resultsText = new JTextArea();
+    private NameListModel results = new NameListModel();
+    private JList<String> resultsList = new JList<>(results);
+    private NameGenerationWorker generation;
     private JLabel lMinSyllables = new JLabel();
     private JLabel lMaxSyllables = new JLabel();
     private JLabel lCustomSyllableFrequency = new JLabel();
@@ -60,6 +69,7 @@ public class FictionalNameGeneratorUI extends JFrame {
         addFilesFoundLabels();
         addDivider();
         addScrapeMenu();
+        DictionaryScraper.addProgressListener(ScrapeProgressListener.onEventDispatchThread(this::updateScrapeProgressLabels));
         addDivider();
         addSliders();
         addOutputSection();
@@ -76,14 +86,22 @@ public class FictionalNameGeneratorUI extends JFrame {
         setLocationRelativeTo(null);
     }
 
-    private void printGeneratedNames() {
-        String text = "";
-
-        for (String s : FictionalNameGenerator.generateNames(wordsToGenerate, minSyllables, maxSyllables, customSyllableFrequency)) {
-            s = s.substring(0, 1).toUpperCase() + s.substring(1, s.length());
-            text += s + '\n';
+    private void startGeneratingNames() {
+        int count;
+        try {
+            count = Integer.parseInt(tfNameCount.getText().trim());
+            if (count < 1 || count > maxWordsToGenerate) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            tfNameCount.setText("Enter 1 to " + maxWordsToGenerate + "!");
+            return;
         }
-        resultsText.setText(text.substring(0, text.length() - 1));
+
+        results.clear();
+        bGenerate.setText("Stop");
+        generation = new NameGenerationWorker(count, minSyllables, maxSyllables, customSyllableFrequency);
+        generation.execute();
     }
 
     private void addDivider() {
@@ -117,6 +135,7 @@ public class FictionalNameGeneratorUI extends JFrame {
         mainPanel.add(bRefresh, constraints);
 
         bRefresh.addActionListener((ActionEvent event) -> {
+            SyllableCorpus.reload();
             updateFilesFoundLabels();
         });
         constraints.gridwidth = 1;
@@ -155,11 +174,17 @@ public class FictionalNameGeneratorUI extends JFrame {
         lDictionarySyllableFrequency.setText("Syllable from dictionary chance: " + String.format("%0$-" + significantFigures + "s", Float.toString(1.0f - customSyllableFrequency)).replace(' ', '0').substring(0, significantFigures));
     }
 
-    private void updateScrapeProgressLabels() {
+    // Called on the Event Dispatch Thread with the scraper's latest progress
+    private void updateScrapeProgressLabels(ScrapeProgress progress) {
         lScrapeProgress.setText("                              "
-                + String.valueOf(DictionaryScraper.getPagesRead()) + "/" + String.valueOf(DictionaryScraper.getTotalPages()) + " pages scraped, "
-                + String.valueOf(DictionaryScraper.getSyllablesFoundSoFar()) + " syllables found, "
-                + String.valueOf(DictionaryScraper.getTotalPagesInDictionary() + " pages found in dictionary."));
+                + String.valueOf(progress.getPagesRead()) + "/" + String.valueOf(progress.getTotalPages()) + " pages scraped, "
+                + String.valueOf(progress.getSyllablesFound()) + " syllables found ("
+                + String.valueOf(progress.getUniqueSyllablesFound()) + " unique), "
+                + String.valueOf(progress.getPagesInDictionary() + " pages found in dictionary."));
+        if (progress.isFinished()) {
+            updateFilesFoundLabels();
+            bGenerate.setEnabled(true);
+        }
     }
 
     private void updateSliderLabels() {
@@ -285,21 +310,36 @@ public class FictionalNameGeneratorUI extends JFrame {
     }
 
     private void addOutputSection() {
+        constraints.gridy++;
+        mainPanel.add(lNameCount, constraints);
+        constraints.gridx++;
+        tfNameCount.setPreferredSize(new Dimension(150, 30));
+        mainPanel.add(tfNameCount, constraints);
+        constraints.gridx = 0;
+
         constraints.fill = GridBagConstraints.HORIZONTAL;
         constraints.gridy++;
         mainPanel.add(bGenerate, constraints);
+        constraints.gridx++;
+        mainPanel.add(lGenerateProgress, constraints);
+        constraints.gridx = 0;
 
         bGenerate.addActionListener((ActionEvent event) -> {
-            printGeneratedNames();
+            if (generation != null && !generation.isDone()) {
+                generation.cancel(false);
+            } else {
+                startGeneratingNames();
+            }
         });
 
-        for (int i = 0; i < wordsToGenerate - 1; i++) {
-            resultsText.append("\n");
-        }
+        // A fixed row size spares the list measuring every name, so only the rows in view are ever looked at
+        resultsList.setPrototypeCellValue("Wwwwwwwwwwwwwwwwwwwwwwwwwwwwww");
+        resultsList.setVisibleRowCount(wordsToGenerate);
+        JScrollPane resultsScrollPane = new JScrollPane(resultsList);
 
         constraints.gridy++;
         constraints.gridwidth = 2;
-        mainPanel.add(resultsText, constraints);
+        mainPanel.add(resultsScrollPane, constraints);
         constraints.gridwidth = 1;
 
         constraints.gridy++;
@@ -315,36 +355,87 @@ public class FictionalNameGeneratorUI extends JFrame {
         constraints.fill = GridBagConstraints.NONE;
     }
 
-    public class LabelScrapeProgressTextSetter implements Runnable {
-        public void run() {
-            while (DictionaryScraper.isWorking()) {
+    /*
+            Generates names off the Event Dispatch Thread a chunk at a time, handing every finished chunk over to
+        the list so names show up while the rest are still being generated. Stopping takes effect after the
+        chunk being generated, and the names so far stay in the list.
+    */
+    private class NameGenerationWorker extends SwingWorker<Void, NameListModel.Chunk> {
+        private final int count, minSyllables, maxSyllables;
+        private final float occasionalSyllableFrequency;
+        private final long start = System.nanoTime();
+        private volatile long generated, elapsedNanos;
+
+        NameGenerationWorker(int count, int minSyllables, int maxSyllables, float occasionalSyllableFrequency) {
+            this.count = count;
+            this.minSyllables = minSyllables;
+            this.maxSyllables = maxSyllables;
+            this.occasionalSyllableFrequency = occasionalSyllableFrequency;
+        }
+
+        @Override
+        protected Void doInBackground() {
+            while (generated < count && !isCancelled()) {
+                NameListModel.Chunk chunk = new NameListModel.Chunk();
+                FictionalNameGenerator.generateNames((int) Math.min(NameListModel.NAMES_PER_CHUNK, count - generated),
+                        minSyllables, maxSyllables, occasionalSyllableFrequency, true, chunk::add);
+                generated += chunk.size();
+                elapsedNanos = System.nanoTime() - start;
+                publish(chunk);
+            }
+            return null;
+        }
+
+        @Override
+        protected void process(List<NameListModel.Chunk> chunks) {
+            // Chunks of a generation that has since been replaced by a new one
+            if (generation != this) {
+                return;
+            }
+            results.addChunks(chunks);
+            if (!isDone()) {
+                lGenerateProgress.setText(String.format("%,d of %,d names", results.getSize(), count));
+            }
+        }
+
+        @Override
+        protected void done() {
+            bGenerate.setText("Generate");
+            if (!isCancelled()) {
                 try {
-                    updateScrapeProgressLabels();
-                    Thread.currentThread().sleep(100);
+                    get();
+                } catch (ExecutionException e) {
+                    // Such as a corpus without dictionary syllables, shown instead of a count of names never made
+                    e.getCause().printStackTrace();
+                    lGenerateProgress.setText("<html><font color=\"red\">Generating failed after " + String.format("%,d", generated)
+                            + " names: " + e.getCause() + "</font></html>");
+                    return;
                 } catch (InterruptedException e) {
-                    tfScrapeLimit.setText("InterruptedException; try again");
+                    // Cannot happen once done, get() returns straight away
+                    e.printStackTrace();
                 }
             }
-            updateFilesFoundLabels();
-            bGenerate.setEnabled(true);
+            double seconds = elapsedNanos / 1e9;
+            lGenerateProgress.setText(String.format("%s%,d names in %.0f ms, %,.0f names/sec", isCancelled() ? "Stopped after " : "",
+                    generated, seconds * 1000, seconds > 0 ? generated / seconds : 0.0));
         }
     }
 
+    // Runs a scrape off the Event Dispatch Thread, its progress reaching the labels through the scraper's events
     public class TextGenerator implements Runnable {
         public void run() {
-            Thread tTextSetter = new Thread(new LabelScrapeProgressTextSetter(), "t1");
+            int scrapeLimit;
             try {
-                bScrape.setText("Stop now");
-                bGenerate.setEnabled(false);
-                tTextSetter.start();
-                DictionaryScraper.generateSyllablesFromWebsiteFile(Integer.parseInt(tfScrapeLimit.getText()));
-                updateFilesFoundLabels();
-                updateScrapeProgressLabels();
+                scrapeLimit = Integer.parseInt(tfScrapeLimit.getText());
             } catch (NumberFormatException e) {
-                tfScrapeLimit.setText("Enter a number!");
-                updateFilesFoundLabels();
-                bGenerate.setEnabled(true);
+                SwingUtilities.invokeLater(() -> tfScrapeLimit.setText("Enter a number!"));
+                return;
             }
+            SwingUtilities.invokeLater(() -> {
+                bScrape.setText("Stop now");
+                bGenerate.setEnabled(false);
+            });
+            DictionaryScraper.generateSyllablesFromWebsiteFile(scrapeLimit);
         }
     }
 }
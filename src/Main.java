@@ -1,7 +1,19 @@
 import javax.swing.*;
+import java.util.Arrays;
 
 public class Main {
+    // With arguments, generates names on the command line instead of opening the UI, see NameGeneratorCli,
+    // or with --serve [PORT] serves them over HTTP, see NameServer
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            NameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0) {
+            NameGeneratorCli.main(args);
+            return;
+        }
+
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
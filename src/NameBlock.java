@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/*
+        A block of generated names encoded as UTF-8, one name per line, straight from the word buffer into a byte
+    array that is reused block after block. Used wherever names go out as bytes, so there is no Writer or String
+    per name in between. Not thread-safe.
+*/
+public class NameBlock {
+    private byte[] bytes;
+    private int length;
+
+    public NameBlock(int expectedNames) {
+        bytes = new byte[Math.max(1, expectedNames) * 16];
+    }
+
+    // Replaces the block's contents with the given number of names
+    public NameBlock fill(SyllableCorpus corpus, int names, int minSyllables, int maxSyllables, float occasionalSyllableFrequency,
+                          boolean capitalise, RandomGenerator random) {
+        char[] word = FictionalNameGenerator.getWordBuffer(corpus, maxSyllables);
+        length = 0;
+
+        for (int i = 0; i < names; i++) {
+            int wordLength = FictionalNameGenerator.assembleName(corpus, minSyllables, maxSyllables,
+                    occasionalSyllableFrequency, random, word);
+            if (capitalise && wordLength > 0) {
+                word[0] = Character.toUpperCase(word[0]);
+            }
+
+            // At most three bytes per char, a surrogate pair taking four for its two chars, plus the newline
+            if (length + wordLength * 3 + 1 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + wordLength * 3 + 1));
+            }
+            for (int j = 0; j < wordLength; j++) {
+                char c = word[j];
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else {
+                    j = encode(word, j, wordLength);
+                }
+            }
+            bytes[length++] = '\n';
+        }
+        return this;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    // Returns the number of bytes written, which is all of them
+    public int writeTo(WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return length;
+    }
+
+    // Encodes the char at j, and the one after it for a surrogate pair, returning the index of the last one used
+    private int encode(char[] word, int j, int wordLength) {
+        char c = word[j];
+        if (c < 0x800) {
+            bytes[length++] = (byte) (0xC0 | c >> 6);
+            bytes[length++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && j + 1 < wordLength && Character.isLowSurrogate(word[j + 1])) {
+            int codePoint = Character.toCodePoint(c, word[++j]);
+            bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[length++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (Character.isSurrogate(c)) {
+            // Unpaired half of a pair, written the way String.getBytes does
+            bytes[length++] = '?';
+        } else {
+            bytes[length++] = (byte) (0xE0 | c >> 12);
+            bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+            bytes[length++] = (byte) (0x80 | c & 0x3F);
+        }
+        return j;
+    }
+}
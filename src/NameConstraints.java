@@ -0,0 +1,85 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/*
+        Requirements a generated name has to meet, given to FictionalNameGenerator.generateNames so that names are
+    built to meet them rather than generated freely and filtered afterwards:
+            new NameConstraints().setLength(6, 8).setPrefix("ka").setSuffix("ia").addBannedSubstring("xx")
+    Everything is matched case-sensitively against the name as assembled from the syllables, before capitalising.
+*/
+public class NameConstraints {
+    private int minLength = 0, maxLength = Integer.MAX_VALUE;
+    private String prefix = "", suffix = "";
+    private final List<String> bannedSubstrings = new ArrayList<>();
+
+    public int getMinLength() {
+        return minLength;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    // Number of characters in the name, both inclusive
+    public NameConstraints setLength(int minLength, int maxLength) {
+        if (minLength < 0 || maxLength < minLength) {
+            throw new IllegalArgumentException("Need 0 <= minLength <= maxLength, got " + minLength + " and " + maxLength);
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    public NameConstraints setLength(int length) {
+        return setLength(length, length);
+    }
+
+    boolean isLengthLimited() {
+        return minLength > 0 || maxLength < Integer.MAX_VALUE;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public NameConstraints setPrefix(String prefix) {
+        this.prefix = prefix == null ? "" : prefix;
+        return this;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public NameConstraints setSuffix(String suffix) {
+        this.suffix = suffix == null ? "" : suffix;
+        return this;
+    }
+
+    public List<String> getBannedSubstrings() {
+        return Collections.unmodifiableList(bannedSubstrings);
+    }
+
+    // No name will contain the substring anywhere, across syllable boundaries included
+    public NameConstraints addBannedSubstring(String substring) {
+        if (substring != null && !substring.isEmpty()) {
+            bannedSubstrings.add(substring);
+        }
+        return this;
+    }
+
+    public NameConstraints addBannedSubstrings(Collection<String> substrings) {
+        for (String substring : substrings) {
+            addBannedSubstring(substring);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("length %d-%s, prefix \"%s\", suffix \"%s\", banned %s", minLength,
+                maxLength == Integer.MAX_VALUE ? "any" : Integer.toString(maxLength), prefix, suffix, bannedSubstrings);
+    }
+}
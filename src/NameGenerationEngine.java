@@ -0,0 +1,107 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+        Generates large batches of names in parallel on a fork-join pool. The batch is halved recursively until
+    slices are small enough to generate directly, and every split hands one half a SplittableRandom split off the
+    parent's stream. The split tree only depends on the batch size, so a given seed yields the same names in the
+    same order no matter how many threads end up doing the work.
+*/
+public class NameGenerationEngine {
+    // Slices at most this size are generated on a single thread
+    private static final int NAMES_PER_TASK = 2048;
+
+    private final ForkJoinPool pool;
+
+    public NameGenerationEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public NameGenerationEngine(int threads) {
+        this(new ForkJoinPool(threads));
+    }
+
+    public NameGenerationEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public List<String> generateNames(long seed, int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency) {
+        return generateNames(seed, numberOfWords, minSyllables, maxSyllables, occasionalSyllableFrequency, false);
+    }
+
+    public List<String> generateNames(long seed, int numberOfWords, int minSyllables, int maxSyllables,
+                                      float occasionalSyllableFrequency, boolean capitalise) {
+        String[] names = new String[numberOfWords];
+        GenerationTask task = new GenerationTask(SyllableCorpus.get(), names, 0, numberOfWords, new SplittableRandom(seed),
+                minSyllables, maxSyllables, occasionalSyllableFrequency, capitalise);
+        pool.invoke(task);
+        return Arrays.asList(names);
+    }
+
+    // Stops the engine's worker threads, unless it runs on the common pool
+    public void shutdown() {
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdown();
+        }
+    }
+
+    // Serializable only because every ForkJoinTask is, tasks are never serialized
+    @SuppressWarnings("serial")
+    private static class GenerationTask extends RecursiveAction {
+        private final SyllableCorpus corpus;
+        private final String[] names;
+        private final int from, to;
+        private final SplittableRandom random;
+        private final int minSyllables, maxSyllables;
+        private final float occasionalSyllableFrequency;
+        private final boolean capitalise;
+
+        GenerationTask(SyllableCorpus corpus, String[] names, int from, int to, SplittableRandom random,
+                       int minSyllables, int maxSyllables, float occasionalSyllableFrequency, boolean capitalise) {
+            this.corpus = corpus;
+            this.names = names;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.minSyllables = minSyllables;
+            this.maxSyllables = maxSyllables;
+            this.occasionalSyllableFrequency = occasionalSyllableFrequency;
+            this.capitalise = capitalise;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= NAMES_PER_TASK) {
+                generateSlice();
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            GenerationTask left = new GenerationTask(corpus, names, from, middle, random.split(),
+                    minSyllables, maxSyllables, occasionalSyllableFrequency, capitalise);
+            GenerationTask right = new GenerationTask(corpus, names, middle, to, random,
+                    minSyllables, maxSyllables, occasionalSyllableFrequency, capitalise);
+            invokeAll(left, right);
+        }
+
+        private void generateSlice() {
+            char[] word = FictionalNameGenerator.getWordBuffer(corpus, maxSyllables);
+
+            for (int i = from; i < to; i++) {
+                int length = FictionalNameGenerator.assembleName(corpus, minSyllables, maxSyllables,
+                        occasionalSyllableFrequency, random, word);
+                if (capitalise && length > 0) {
+                    word[0] = Character.toUpperCase(word[0]);
+                }
+                names[i] = new String(word, 0, length);
+            }
+        }
+    }
+}
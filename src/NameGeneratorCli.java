@@ -0,0 +1,141 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+/*
+        Generates names from the command line without the UI, one name per line in UTF-8, to a file or to stdout:
+            java Main --count 10000000 --min 2 --max 5 --frequency 0.1 --seed 42 --threads 8 --output names.txt
+        Nothing here touches Swing, so no AWT classes are loaded when Main is started with arguments.
+
+        Names are generated in blocks on a pool of threads. Every block is a NameBlock, encoded straight to UTF-8
+    and written with one channel write, and blocks are written in the order they were started while later blocks
+    are still being generated. Each block takes a
+    SplittableRandom split off the seed in turn, so a seed gives the same names whatever the thread count.
+*/
+public class NameGeneratorCli {
+    private static final int NAMES_PER_BLOCK = 16384;
+    // Blocks being generated or waiting to be written, per thread
+    private static final int BLOCKS_IN_FLIGHT_PER_THREAD = 2;
+
+    public static void main(String[] args) {
+        long count = 10, seed = ThreadLocalRandom.current().nextLong();
+        int minSyllables = 3, maxSyllables = 5, threads = Runtime.getRuntime().availableProcessors();
+        float occasionalSyllableFrequency = 0.0f;
+        boolean capitalise = false;
+        String output = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--count":
+                        count = Long.parseLong(args[++i]);
+                        break;
+                    case "--min":
+                        minSyllables = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max":
+                        maxSyllables = Integer.parseInt(args[++i]);
+                        break;
+                    case "--frequency":
+                        occasionalSyllableFrequency = Float.parseFloat(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--capitalise":
+                        capitalise = true;
+                        break;
+                    case "--output":
+                        output = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (count < 0 || minSyllables < 1 || maxSyllables < minSyllables || threads < 1) {
+                throw new IllegalArgumentException("Need count >= 0, 1 <= min <= max and threads >= 1");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java Main [--count N] [--min SYLLABLES] [--max SYLLABLES] [--frequency OCCASIONAL] "
+                    + "[--seed S] [--threads N] [--capitalise] [--output FILE]");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime(), bytes;
+        try {
+            if (output == null) {
+                // Straight to file descriptor 1, without System.out's PrintStream in the way. Left open, like stdout.
+                bytes = generate(new FileOutputStream(FileDescriptor.out).getChannel(), count, minSyllables, maxSyllables,
+                        occasionalSyllableFrequency, capitalise, seed, threads);
+            } else {
+                try (FileChannel channel = FileChannel.open(Paths.get(output), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    bytes = generate(channel, count, minSyllables, maxSyllables, occasionalSyllableFrequency, capitalise, seed, threads);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Reported on stderr, so it never ends up among the names
+        System.err.println(String.format("%d names in %.2f s on %d thread(s): %.0f names/sec, %.1f MB/s, seed %d",
+                count, seconds, threads, count / seconds, bytes / seconds / 1e6, seed));
+    }
+
+    // Writes count names, one per line, and returns the number of bytes written
+    public static long generate(WritableByteChannel out, long count, int minSyllables, int maxSyllables,
+                                float occasionalSyllableFrequency, boolean capitalise, long seed, int threads) throws IOException {
+        SyllableCorpus corpus = SyllableCorpus.get();
+        SplittableRandom random = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "NameGeneratorCli");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ArrayDeque<NameBlock> free = new ArrayDeque<>();
+        ArrayDeque<Future<NameBlock>> inFlight = new ArrayDeque<>();
+        for (int i = 0; i < threads * BLOCKS_IN_FLIGHT_PER_THREAD; i++) {
+            free.add(new NameBlock(NAMES_PER_BLOCK));
+        }
+
+        long started = 0, bytes = 0;
+        try {
+            while (started < count || !inFlight.isEmpty()) {
+                while (started < count && !free.isEmpty()) {
+                    NameBlock block = free.poll();
+                    int names = (int) Math.min(NAMES_PER_BLOCK, count - started);
+                    SplittableRandom blockRandom = random.split();
+                    inFlight.add(pool.submit(() -> block.fill(corpus, names, minSyllables, maxSyllables,
+                            occasionalSyllableFrequency, capitalise, blockRandom)));
+                    started += names;
+                }
+
+                NameBlock block = inFlight.poll().get();
+                bytes += block.writeTo(out);
+                free.add(block);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating names", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Generating names failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,79 @@
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+        List model over generated names that keeps them as characters in chunks of NAMES_PER_CHUNK names, not as a
+    String per name, so a JList can hold a million names in a few tens of megabytes. Only the rows the list paints
+    are turned into Strings, when it asks for them. Chunks are filled off the Event Dispatch Thread and only added
+    to the model on it, every chunk but the last one full so that a name is found by dividing its index.
+*/
+// Serializable only through AbstractListModel, its chunks of characters are not meant to be written out
+@SuppressWarnings("serial")
+public class NameListModel extends AbstractListModel<String> {
+    public static final int NAMES_PER_CHUNK = 16384;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int size;
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return chunks.get(index / NAMES_PER_CHUNK).get(index % NAMES_PER_CHUNK);
+    }
+
+    // Appends the chunks and tells the list once for all of them
+    public void addChunks(List<Chunk> added) {
+        int first = size;
+        for (Chunk chunk : added) {
+            if (!chunks.isEmpty() && chunks.get(chunks.size() - 1).size < NAMES_PER_CHUNK) {
+                throw new IllegalStateException("Only the last chunk can hold fewer than " + NAMES_PER_CHUNK + " names");
+            }
+            chunks.add(chunk);
+            size += chunk.size;
+        }
+        if (size > first) {
+            fireIntervalAdded(this, first, size - 1);
+        }
+    }
+
+    public void clear() {
+        int removed = size;
+        chunks.clear();
+        size = 0;
+        if (removed > 0) {
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+    }
+
+    // Up to NAMES_PER_CHUNK names back to back in one array, and where each one ends
+    public static class Chunk {
+        private char[] chars = new char[NAMES_PER_CHUNK * 8];
+        private final int[] ends = new int[NAMES_PER_CHUNK];
+        private int size;
+
+        // Has the shape of NameSink.accept, so a chunk can be filled straight from generateNames
+        public void add(char[] name, int offset, int length) {
+            int start = size == 0 ? 0 : ends[size - 1];
+            if (start + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + length));
+            }
+            System.arraycopy(name, offset, chars, start, length);
+            ends[size++] = start + length;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        String get(int index) {
+            int start = index == 0 ? 0 : ends[index - 1];
+            return new String(chars, start, ends[index] - start);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+        Names generated ahead of time for one set of parameters, see NameReservoirs. Names wait in an MpmcRingBuffer,
+    so handing one out is a compare-and-set, and whenever the buffer falls to its low-water mark a refill is
+    queued on the shared refill threads, which top it back up to capacity. A refill that finds the corpus has been
+    reloaded throws away the names made from the old one first.
+
+        Counts hits, names handed out straight from the buffer, against misses, polls finding it empty and takes
+    having to wait, and how long each refill took from being asked for to the buffer being full again.
+*/
+public class NameReservoir {
+    // Names generated between checks for waiting takers and a stale corpus
+    private static final int NAMES_PER_BATCH = 256;
+
+    /*
+            The parameters a reservoir's names are generated with. mandatorySyllables is null for the syllables of
+        SyllablesMandatory.csv, otherwise the set to use instead, empty for none.
+    */
+    public static final class Key {
+        private final int minSyllables, maxSyllables;
+        private final float occasionalSyllableFrequency;
+        private final List<String> mandatorySyllables;
+
+        public Key(int minSyllables, int maxSyllables, float occasionalSyllableFrequency, Collection<String> mandatorySyllables) {
+            if (minSyllables < 1 || maxSyllables < minSyllables) {
+                throw new IllegalArgumentException("Need 1 <= minSyllables <= maxSyllables, got " + minSyllables + " and " + maxSyllables);
+            }
+            this.minSyllables = minSyllables;
+            this.maxSyllables = maxSyllables;
+            this.occasionalSyllableFrequency = occasionalSyllableFrequency;
+            // Sorted and without duplicates, so the same set in any order finds the same reservoir
+            this.mandatorySyllables = mandatorySyllables == null ? null : List.copyOf(new TreeSet<>(mandatorySyllables));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return minSyllables == other.minSyllables && maxSyllables == other.maxSyllables
+                    && Float.compare(occasionalSyllableFrequency, other.occasionalSyllableFrequency) == 0
+                    && Objects.equals(mandatorySyllables, other.mandatorySyllables);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(minSyllables, maxSyllables, occasionalSyllableFrequency, mandatorySyllables);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d-%d syllables, occasional %.3f, mandatory %s", minSyllables, maxSyllables,
+                    occasionalSyllableFrequency, mandatorySyllables == null ? "from file" : mandatorySyllables);
+        }
+    }
+
+    private final Key key;
+    private final MpmcRingBuffer<String> names;
+    private final int lowWaterMark;
+    private final ExecutorService refillThreads;
+    private final SplittableRandom random = new SplittableRandom();
+
+    private final AtomicBoolean refillQueued = new AtomicBoolean();
+    private volatile long refillRequestedAt;
+    // Corpus the buffered names were made from, and the same with the key's mandatory syllables, refill thread only
+    private SyllableCorpus filledFrom, generatingFrom;
+
+    // Takers waiting for the next batch, woken by the refill thread after every batch and every refill
+    private final Object arrival = new Object();
+    private final AtomicInteger waiting = new AtomicInteger();
+    // Refills that have ended, successfully or not, guarded by arrival
+    private long refillsEnded;
+    // Why the last refill failed, null once one succeeds
+    private volatile RuntimeException refillFailure;
+
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), refills = new LongAdder(), namesGenerated = new LongAdder();
+    private final LatencyHistogram refillLag = new LatencyHistogram();
+
+    NameReservoir(Key key, int capacity, int lowWaterMark, ExecutorService refillThreads) {
+        this.key = key;
+        this.names = new MpmcRingBuffer<>(capacity);
+        this.lowWaterMark = Math.min(lowWaterMark, names.capacity() - 1);
+        this.refillThreads = refillThreads;
+        requestRefill();
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    // A name straight away, or null if none is ready
+    public String poll() {
+        String name = names.poll();
+        if (name == null) {
+            misses.increment();
+            requestRefill();
+            return null;
+        }
+        hits.increment();
+        if (names.size() <= lowWaterMark) {
+            requestRefill();
+        }
+        return name;
+    }
+
+    // A name, waiting for the refill threads to make one if none is ready. Throws IllegalStateException if the
+    // reservoir is empty and the refill it waited for failed, or NameReservoirs has been shut down, as none will come.
+    public String take() throws InterruptedException {
+        String name = names.poll();
+        if (name != null) {
+            hits.increment();
+            if (names.size() <= lowWaterMark) {
+                requestRefill();
+            }
+            return name;
+        }
+
+        misses.increment();
+        waiting.incrementAndGet();
+        try {
+            while ((name = names.poll()) == null) {
+                long ended;
+                synchronized (arrival) {
+                    ended = refillsEnded;
+                }
+                requestRefill();
+                synchronized (arrival) {
+                    // Waiting was counted before looking, so a batch landing after the look is followed by a notify
+                    while (names.size() == 0 && refillsEnded == ended && !refillThreads.isShutdown()) {
+                        arrival.wait();
+                    }
+                }
+                if (names.size() == 0) {
+                    if (refillThreads.isShutdown()) {
+                        throw new IllegalStateException("No names left and no longer refilled: " + key);
+                    }
+                    RuntimeException failure = refillFailure;
+                    if (failure != null) {
+                        throw new IllegalStateException("No names left and refilling failed: " + key, failure);
+                    }
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+        return name;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public int getCapacity() {
+        return names.capacity();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Share of polls and takes answered without waiting, 1 before the first
+    public double getHitRate() {
+        long hit = hits.sum(), total = hit + misses.sum();
+        return total == 0 ? 1.0 : (double) hit / total;
+    }
+
+    public long getRefills() {
+        return refills.sum();
+    }
+
+    public long getNamesGenerated() {
+        return namesGenerated.sum();
+    }
+
+    // From the buffer reaching the low-water mark, or running dry, to it being full again
+    public LatencyHistogram getRefillLag() {
+        return refillLag;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d/%d ready, hit rate %.4f, %d refills, refill lag p50 %.3f ms, p99 %.3f ms",
+                key, size(), getCapacity(), getHitRate(), getRefills(),
+                refillLag.getPercentileMillis(50), refillLag.getPercentileMillis(99));
+    }
+
+    private void requestRefill() {
+        if (refillQueued.compareAndSet(false, true)) {
+            refillRequestedAt = System.nanoTime();
+            try {
+                refillThreads.execute(this::refill);
+            } catch (RejectedExecutionException e) {
+                // Shut down, what is left is all there will be
+                refillQueued.set(false);
+            }
+        }
+    }
+
+    private void refill() {
+        try {
+            SyllableCorpus corpus = SyllableCorpus.get();
+            if (corpus != filledFrom) {
+                // Names from a corpus that has since been reloaded are not handed out any more
+                while (names.poll() != null) {
+                }
+                filledFrom = corpus;
+                generatingFrom = withMandatorySyllables(corpus);
+            }
+
+            char[] word = FictionalNameGenerator.getWordBuffer(generatingFrom, key.maxSyllables);
+            boolean full = false;
+            while (!full) {
+                for (int i = 0; i < NAMES_PER_BATCH && !full; i++) {
+                    int length = FictionalNameGenerator.assembleName(generatingFrom, key.minSyllables, key.maxSyllables,
+                            key.occasionalSyllableFrequency, random, word);
+                    full = !names.offer(new String(word, 0, length));
+                    if (!full) {
+                        namesGenerated.increment();
+                    }
+                }
+                if (waiting.get() > 0) {
+                    synchronized (arrival) {
+                        arrival.notifyAll();
+                    }
+                }
+            }
+            refills.increment();
+            refillLag.record(System.nanoTime() - refillRequestedAt);
+            refillFailure = null;
+        } catch (RuntimeException e) {
+            // Such as a corpus without dictionary syllables. Printed once rather than on every retry while it
+            // keeps failing, waiting takers throw it and the next poll or take tries again.
+            if (refillFailure == null) {
+                e.printStackTrace();
+            }
+            refillFailure = e;
+            return;
+        } finally {
+            refillQueued.set(false);
+            synchronized (arrival) {
+                refillsEnded++;
+                arrival.notifyAll();
+            }
+        }
+        // Drained below the mark again while the flag was still set, nobody else will ask
+        if (names.size() <= lowWaterMark) {
+            requestRefill();
+        }
+    }
+
+    // Wakes waiting takers once the refill threads are shut down, a refill they were waiting for may never run
+    void refillsStopped() {
+        synchronized (arrival) {
+            arrival.notifyAll();
+        }
+    }
+
+    private SyllableCorpus withMandatorySyllables(SyllableCorpus corpus) {
+        if (key.mandatorySyllables == null) {
+            return corpus;
+        }
+        SyllablePool.Builder mandatory = new SyllablePool.Builder();
+        for (String syllable : key.mandatorySyllables) {
+            mandatory.add(syllable);
+        }
+        return new SyllableCorpus(corpus.getDictionarySyllables(), corpus.getOccasionalSyllables(), mandatory.build());
+    }
+}
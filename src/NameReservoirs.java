@@ -0,0 +1,66 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+        Ready-made names for callers that want one at a time with a predictable latency, such as a service answering
+    a request with a single name, where generateNames(1, ...) would set up a list and look up the corpus for every
+    call. Each set of parameters gets a NameReservoir of its own the first time it is asked for, kept filled from
+    then on by a few shared daemon threads:
+            NameReservoirs reservoirs = new NameReservoirs(4096, 1024, 1);
+            NameReservoir reservoir = reservoirs.get(2, 4, 0.1f);
+            String name = reservoir.take();
+*/
+public class NameReservoirs {
+    private final int capacity, lowWaterMark;
+    private final ExecutorService refillThreads;
+    private final ConcurrentHashMap<NameReservoir.Key, NameReservoir> reservoirs = new ConcurrentHashMap<>();
+
+    // Every reservoir holds up to capacity names and is refilled once lowWaterMark or fewer are left
+    public NameReservoirs(int capacity, int lowWaterMark, int refillThreadCount) {
+        if (capacity < 2 || lowWaterMark < 0 || lowWaterMark >= capacity || refillThreadCount < 1) {
+            throw new IllegalArgumentException("Need capacity >= 2, 0 <= lowWaterMark < capacity and at least one refill thread");
+        }
+        this.capacity = capacity;
+        this.lowWaterMark = lowWaterMark;
+        AtomicInteger threadNumber = new AtomicInteger();
+        refillThreads = Executors.newFixedThreadPool(refillThreadCount, runnable -> {
+            Thread thread = new Thread(runnable, "NameReservoirRefill-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Reservoir for names using the mandatory syllables of SyllablesMandatory.csv
+    public NameReservoir get(int minSyllables, int maxSyllables, float occasionalSyllableFrequency) {
+        return get(new NameReservoir.Key(minSyllables, maxSyllables, occasionalSyllableFrequency, null));
+    }
+
+    // Reservoir for names using the given mandatory syllables instead, none if empty
+    public NameReservoir get(int minSyllables, int maxSyllables, float occasionalSyllableFrequency, Collection<String> mandatorySyllables) {
+        return get(new NameReservoir.Key(minSyllables, maxSyllables, occasionalSyllableFrequency, mandatorySyllables));
+    }
+
+    public NameReservoir get(NameReservoir.Key key) {
+        NameReservoir reservoir = reservoirs.get(key);
+        if (reservoir == null) {
+            reservoir = reservoirs.computeIfAbsent(key, k -> new NameReservoir(k, capacity, lowWaterMark, refillThreads));
+        }
+        return reservoir;
+    }
+
+    public Collection<NameReservoir> getReservoirs() {
+        return Collections.unmodifiableCollection(reservoirs.values());
+    }
+
+    // Stops refilling, names already in the reservoirs can still be polled
+    public void shutdown() {
+        refillThreads.shutdownNow();
+        for (NameReservoir reservoir : reservoirs.values()) {
+            reservoir.refillsStopped();
+        }
+    }
+}
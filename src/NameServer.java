@@ -0,0 +1,211 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/*
+        Serves names over HTTP with the JDK's built-in server, every request on a virtual thread of its own where
+    the runtime has them:
+            java Main --serve 8080
+            GET /names?count=10&min=2&max=5&frequency=0.1&capitalise=true&seed=42
+            GET /stats
+    The parameters are those of FictionalNameGenerator.generateNames, all optional, seed making the answer
+    repeatable. Names come back as UTF-8 text, one per line. An answer that fits in one block is generated first
+    and sent with its length in a single write; a larger one goes out as a chunked response written block by block,
+    so a request for millions of names never holds more than one block in memory.
+
+        The JDK's server always flushes the headers on their own and only turns on TCP_NODELAY if a system property
+    was set before the first HttpServer in the JVM was created, so the last small write of an answer could wait on
+    Nagle's algorithm for the client's delayed ACK, some 40 ms. Answers therefore close the connection, which
+    sends whatever is held back at once.
+
+        Every request uses the shared in-memory SyllableCorpus, which is loaded once and swapped when the files
+    change, and encodes into a NameBlock taken from a pool, so a request allocates next to nothing of its own.
+*/
+public class NameServer {
+    private static final int NAMES_PER_BLOCK = 1024;
+    private static final long MAX_NAMES_PER_REQUEST = 100_000_000L;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<NameBlock> blocks = new ConcurrentLinkedQueue<>();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder(), namesServed = new LongAdder(), badRequests = new LongAdder();
+
+    private NameServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static void main(String[] args) {
+        int port = 8080;
+        try {
+            if (args.length > 0) {
+                port = Integer.parseInt(args[0]);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Usage: java NameServer [PORT]");
+            System.exit(2);
+        }
+
+        try {
+            NameServer server = start(port);
+            System.out.println("Serving names on http://localhost:" + server.getPort() + "/names");
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Starts serving on the port, 0 picking a free one
+    public static NameServer start(int port) throws IOException {
+        // Loaded up front, so the first request does not pay for it
+        SyllableCorpus.get();
+
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("NameServer", Runtime.getRuntime().availableProcessors() * 4);
+        NameServer nameServer = new NameServer(httpServer, executor);
+        httpServer.createContext("/names", nameServer::handleNames);
+        httpServer.createContext("/stats", nameServer::handleStats);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        return nameServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting requests, giving those in progress up to a second to finish
+    public void stop() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    private void handleNames(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            exchange.getResponseHeaders().set("Connection", "close");
+            if (!exchange.getRequestMethod().equals("GET")) {
+                badRequests.increment();
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            long count;
+            int minSyllables, maxSyllables;
+            float occasionalSyllableFrequency;
+            boolean capitalise;
+            RandomGenerator random;
+            try {
+                Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+                count = Long.parseLong(parameters.getOrDefault("count", "10"));
+                minSyllables = Integer.parseInt(parameters.getOrDefault("min", "3"));
+                maxSyllables = Integer.parseInt(parameters.getOrDefault("max", "5"));
+                occasionalSyllableFrequency = Float.parseFloat(parameters.getOrDefault("frequency", "0"));
+                capitalise = Boolean.parseBoolean(parameters.getOrDefault("capitalise", "false"));
+                String seed = parameters.get("seed");
+                random = seed == null ? ThreadLocalRandom.current() : new SplittableRandom(Long.parseLong(seed));
+
+                if (count < 0 || count > MAX_NAMES_PER_REQUEST || minSyllables < 1 || maxSyllables < minSyllables) {
+                    throw new IllegalArgumentException("Need 0 <= count <= " + MAX_NAMES_PER_REQUEST + " and 1 <= min <= max");
+                }
+            } catch (IllegalArgumentException e) {
+                badRequests.increment();
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            SyllableCorpus corpus = SyllableCorpus.get();
+            NameBlock block = blocks.poll();
+            if (block == null) {
+                block = new NameBlock(NAMES_PER_BLOCK);
+            }
+            try {
+                if (count <= NAMES_PER_BLOCK) {
+                    // Generated before the headers, so the whole answer has a known length and leaves in one write
+                    block.fill(corpus, (int) count, minSyllables, maxSyllables, occasionalSyllableFrequency, capitalise, random);
+                    // -1 for no body at all, 0 would mean chunked
+                    exchange.sendResponseHeaders(200, block.getLength() == 0 ? -1 : block.getLength());
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        block.writeTo(body);
+                    }
+                } else {
+                    // A length of 0 makes the response chunked
+                    exchange.sendResponseHeaders(200, 0);
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        for (long remaining = count; remaining > 0; remaining -= NAMES_PER_BLOCK) {
+                            block.fill(corpus, (int) Math.min(NAMES_PER_BLOCK, remaining), minSyllables, maxSyllables,
+                                    occasionalSyllableFrequency, capitalise, random).writeTo(body);
+                        }
+                    }
+                }
+            } finally {
+                blocks.offer(block);
+            }
+            namesServed.add(count);
+        } finally {
+            exchange.close();
+            requests.increment();
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            String stats = String.format("requests %d%nbad requests %d%nnames %d%nmean %.3f ms%np50 %.3f ms%np99 %.3f ms%np999 %.3f ms%nmax %.3f ms%n",
+                    requests.sum(), badRequests.sum(), namesServed.sum(), latency.getMeanMillis(), latency.getPercentileMillis(50),
+                    latency.getPercentileMillis(99), latency.getPercentileMillis(99.9), latency.getMaxMillis());
+            byte[] body = stats.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+        Puts load on a NameServer from a number of connections, each sending its next request as soon as the last
+    answer is read in full, and reports requests per second and latency percentiles. Requests made during the
+    warm-up are not counted. Connections are kept alive between requests where the server allows it, as a service
+    calling the server would; NameServer closes them after every answer, so each request connects anew.
+            java NameServerLoadClient --url "http://localhost:8080/names?count=10" --connections 16 --seconds 10
+*/
+public class NameServerLoadClient {
+    public static void main(String[] args) {
+        String url = "http://localhost:8080/names?count=10";
+        int connections = 16;
+        double warmupSeconds = 2, seconds = 10;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--url":
+                        url = args[++i];
+                        break;
+                    case "--connections":
+                        connections = Integer.parseInt(args[++i]);
+                        break;
+                    case "--warmup-seconds":
+                        warmupSeconds = Double.parseDouble(args[++i]);
+                        break;
+                    case "--seconds":
+                        seconds = Double.parseDouble(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java NameServerLoadClient [--url URL] [--connections N] [--warmup-seconds S] [--seconds S]");
+            System.exit(2);
+        }
+
+        try {
+            System.out.println(run(url, connections, (long) (warmupSeconds * 1000), (long) (seconds * 1000)));
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    public static Result run(String url, int connections, long warmupMillis, long durationMillis) throws IOException, InterruptedException {
+        URL target = new URL(url);
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder bytes = new LongAdder(), errors = new LongAdder();
+        long measureFrom = System.nanoTime() + warmupMillis * 1_000_000L, measureUntil = measureFrom + durationMillis * 1_000_000L;
+        CountDownLatch finished = new CountDownLatch(connections);
+
+        for (int i = 0; i < connections; i++) {
+            Thread thread = new Thread(() -> {
+                byte[] buffer = new byte[65536];
+                try {
+                    long start;
+                    while ((start = System.nanoTime()) < measureUntil) {
+                        long read = 0;
+                        boolean failed = false;
+                        try {
+                            HttpURLConnection connection = (HttpURLConnection) target.openConnection();
+                            failed = connection.getResponseCode() != 200;
+                            // Read to the end either way, which hands the connection back for the next request
+                            try (InputStream in = failed ? connection.getErrorStream() : connection.getInputStream()) {
+                                for (int n; in != null && (n = in.read(buffer)) != -1; ) {
+                                    read += n;
+                                }
+                            }
+                        } catch (IOException e) {
+                            failed = true;
+                        }
+
+                        if (start >= measureFrom) {
+                            latency.record(System.nanoTime() - start);
+                            bytes.add(read);
+                            if (failed) {
+                                errors.increment();
+                            }
+                        }
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            }, "NameServerLoadClient-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        finished.await();
+        return new Result(latency, bytes.sum(), errors.sum(), durationMillis / 1000.0);
+    }
+
+    public static class Result {
+        public final LatencyHistogram latency;
+        public final long bytes, errors;
+        public final double seconds;
+
+        Result(LatencyHistogram latency, long bytes, long errors, double seconds) {
+            this.latency = latency;
+            this.bytes = bytes;
+            this.errors = errors;
+            this.seconds = seconds;
+        }
+
+        public double getRequestsPerSecond() {
+            return latency.getCount() / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests in %.1f s, %d errors: %.0f requests/sec, %.1f MB/s%n"
+                            + "latency mean %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p999 %.3f ms, max %.3f ms",
+                    latency.getCount(), seconds, errors, getRequestsPerSecond(), bytes / seconds / 1e6,
+                    latency.getMeanMillis(), latency.getPercentileMillis(50), latency.getPercentileMillis(90),
+                    latency.getPercentileMillis(99), latency.getPercentileMillis(99.9), latency.getMaxMillis());
+        }
+    }
+}
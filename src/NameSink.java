@@ -0,0 +1,7 @@
+/*
+        Receives generated names straight out of the generator's reusable buffer. The characters are only valid for the
+    duration of the call, so implementations must copy whatever they want to keep.
+*/
+public interface NameSink {
+    void accept(char[] name, int offset, int length);
+}
@@ -0,0 +1,71 @@
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/*
+        Lazily generates a fixed number of names, one per tryAdvance call. Only the current word buffer is held, so
+    memory use does not depend on how many names are requested. Splitting hands the other half of the remaining
+    names a split of this spliterator's random stream, which lets parallel streams generate independently.
+*/
+class NameSpliterator implements Spliterator<String> {
+    // Below this many remaining names splitting costs more than it saves
+    private static final long MIN_SPLIT_SIZE = 1024;
+
+    private final SyllableCorpus corpus;
+    private final int minSyllables, maxSyllables;
+    private final float occasionalSyllableFrequency;
+    private final boolean capitalise;
+    private final SplittableRandom random;
+    private long remaining;
+    private char[] word;
+
+    NameSpliterator(SyllableCorpus corpus, long numberOfWords, int minSyllables, int maxSyllables,
+                    float occasionalSyllableFrequency, boolean capitalise, SplittableRandom random) {
+        this.corpus = corpus;
+        this.remaining = numberOfWords;
+        this.minSyllables = minSyllables;
+        this.maxSyllables = maxSyllables;
+        this.occasionalSyllableFrequency = occasionalSyllableFrequency;
+        this.capitalise = capitalise;
+        this.random = random;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (remaining <= 0) {
+            return false;
+        }
+        remaining--;
+
+        if (word == null) {
+            // Not the thread's own buffer, a spliterator can move between threads while they generate names
+            word = new char[Math.max(1, FictionalNameGenerator.getWordCapacity(corpus, maxSyllables))];
+        }
+        int length = FictionalNameGenerator.assembleName(corpus, minSyllables, maxSyllables, occasionalSyllableFrequency, random, word);
+        if (capitalise && length > 0) {
+            word[0] = Character.toUpperCase(word[0]);
+        }
+        action.accept(new String(word, 0, length));
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (remaining < MIN_SPLIT_SIZE * 2) {
+            return null;
+        }
+        long half = remaining / 2;
+        remaining -= half;
+        return new NameSpliterator(corpus, half, minSyllables, maxSyllables, occasionalSyllableFrequency, capitalise, random.split());
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+        Token bucket limiting how often something may happen. Tokens are added continuously at the given rate, up to
+    a small burst, and acquire() waits until one is available. Thread-safe.
+*/
+public class RateLimiter {
+    private final double permitsPerNano;
+    private final double maxPermits;
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, Math.max(1.0, permitsPerSecond / 10));
+    }
+
+    public RateLimiter(double permitsPerSecond, double burst) {
+        this.permitsPerNano = permitsPerSecond / 1e9;
+        this.maxPermits = burst;
+        this.storedPermits = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            // Take the permit now, going into debt if need be, and sleep off the debt outside the lock
+            storedPermits -= 1.0;
+            waitNanos = storedPermits >= 0 ? 0 : (long) (-storedPermits / permitsPerNano);
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1000000, (int) (waitNanos % 1000000));
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+    }
+}
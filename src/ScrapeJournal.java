@@ -0,0 +1,223 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/*
+        Append-only log of scraping progress, so that an interrupted scrape can carry on where it stopped. Lines are
+    tab separated:
+        S   sitemap URL                         every page listed in this sub-sitemap has been scraped
+        P   page URL    ETag    Last-Modified   this page has been scraped, with the validators it was served with
+        C   corpus bytes    sequence bytes      a checkpoint, with how long the output files were at the time
+    Checkpoints are numbered from 1 in the order they were written, so a file staged for one can be told apart from
+    one staged for the next.
+
+        Completed pages are remembered as 64-bit URL hashes in an open addressing table, a few bytes per page for the
+    whole dictionary. Validators are only kept in memory when asked for, to re-scrape with conditional requests.
+    Entries are buffered and only written by checkpoint(), which callers run after flushing the corpus files, so
+    the journal never claims a page whose syllables did not make it to disk. Anything the output files hold past
+    the lengths of the last checkpoint came from pages the journal does not have, and is cut off when resuming.
+    Likewise entries are only believed once the checkpoint after them has been read back in full.
+*/
+public class ScrapeJournal implements Closeable {
+    private final PrintWriter out;
+    private final Set<String> completedSitemaps = new HashSet<>();
+    private final Map<Long, String[]> validators;
+    private final StringBuilder pending = new StringBuilder();
+
+    private long[] pageHashes = new long[1024];
+    private int pageCount;
+    private long checkpointCorpusBytes, checkpointSequenceBytes;
+    private long checkpointCount;
+
+    private ScrapeJournal(String filename, boolean keepValidators) throws IOException {
+        validators = keepValidators ? new HashMap<>() : null;
+
+        File file = new File(filename);
+        if (file.exists()) {
+            long committedBytes = read(file);
+            // Whatever follows the last checkpoint was cut short or never checkpointed, and would otherwise be
+            // taken as part of the first group appended from here on
+            if (committedBytes < file.length()) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(committedBytes);
+                }
+            }
+        }
+        out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    /*
+            Replays the journal and returns how many bytes of it hold complete checkpoint groups. Entries only count
+        once the C line closing their group has been read in full, ending in a newline and with both lengths, so a
+        group torn by a crash while it was being appended is dropped whole: its pages are scraped again and the
+        output files are cut back to the lengths of the checkpoint before it.
+    */
+    private long read(File file) throws IOException {
+        List<String[]> group = new ArrayList<>();
+        long bytesRead = 0, committedBytes = 0;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                bytesRead++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                // A newline byte never occurs inside a multi-byte UTF-8 character, so lines can be split before decoding
+                String[] fields = new String(line.toByteArray(), StandardCharsets.UTF_8).split("\t", -1);
+                line.reset();
+                if (!fields[0].equals("C")) {
+                    group.add(fields);
+                    continue;
+                }
+                long corpusBytes = parseLength(fields, 1), sequenceBytes = parseLength(fields, 2);
+                if (fields.length != 3 || corpusBytes < 0 || sequenceBytes < 0) {
+                    // Not a checkpoint this journal wrote, nothing from here on can be trusted
+                    break;
+                }
+                for (String[] entry : group) {
+                    if (entry[0].equals("S") && entry.length >= 2) {
+                        completedSitemaps.add(entry[1]);
+                    } else if (entry[0].equals("P") && entry.length >= 4) {
+                        remember(entry[1], entry[2], entry[3]);
+                    }
+                }
+                group.clear();
+                checkpointCorpusBytes = corpusBytes;
+                checkpointSequenceBytes = sequenceBytes;
+                checkpointCount++;
+                committedBytes = bytesRead;
+            }
+        }
+        return committedBytes;
+    }
+
+    // The field as a length, -1 if it is missing or not a number
+    private static long parseLength(String[] fields, int index) {
+        if (index >= fields.length) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fields[index]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static ScrapeJournal open(String filename, boolean keepValidators) throws IOException {
+        return new ScrapeJournal(filename, keepValidators);
+    }
+
+    public synchronized boolean isSitemapCompleted(String sitemapUrl) {
+        return completedSitemaps.contains(sitemapUrl);
+    }
+
+    public synchronized boolean isPageCompleted(String pageUrl) {
+        long hash = pageHash(pageUrl);
+        int mask = pageHashes.length - 1;
+        for (int slot = (int) hash & mask; pageHashes[slot] != 0; slot = (slot + 1) & mask) {
+            if (pageHashes[slot] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ETag and Last-Modified a completed page was served with, or null if there were none or they were not kept
+    public synchronized String[] getValidators(String pageUrl) {
+        return validators == null ? null : validators.get(pageHash(pageUrl));
+    }
+
+    // Length of the corpus file at the last checkpoint
+    public synchronized long getCheckpointCorpusBytes() {
+        return checkpointCorpusBytes;
+    }
+
+    // Length of the syllable sequences file at the last checkpoint
+    public synchronized long getCheckpointSequenceBytes() {
+        return checkpointSequenceBytes;
+    }
+
+    // Number of the last checkpoint, 0 before the first
+    public synchronized long getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    public synchronized int getCompletedPageCount() {
+        return pageCount;
+    }
+
+    public synchronized void pageCompleted(String pageUrl, String etag, String lastModified) {
+        etag = etag == null ? "" : etag;
+        lastModified = lastModified == null ? "" : lastModified;
+        remember(pageUrl, etag, lastModified);
+        pending.append("P\t").append(pageUrl).append('\t').append(etag).append('\t').append(lastModified).append('\n');
+    }
+
+    public synchronized void sitemapCompleted(String sitemapUrl) {
+        completedSitemaps.add(sitemapUrl);
+        pending.append("S\t").append(sitemapUrl).append('\n');
+    }
+
+    // Writes out everything recorded since the last checkpoint, along with the lengths the output files have now
+    public synchronized void checkpoint(long corpusBytes, long sequenceBytes) {
+        checkpointCorpusBytes = corpusBytes;
+        checkpointSequenceBytes = sequenceBytes;
+        checkpointCount++;
+        pending.append("C\t").append(corpusBytes).append('\t').append(sequenceBytes).append('\n');
+        out.write(pending.toString());
+        out.flush();
+        pending.setLength(0);
+    }
+
+    // Entries recorded since the last checkpoint are dropped, without one the output files may not hold their syllables
+    @Override
+    public synchronized void close() {
+        pending.setLength(0);
+        out.close();
+    }
+
+    private void remember(String pageUrl, String etag, String lastModified) {
+        long hash = pageHash(pageUrl);
+
+        if ((pageCount + 1) * 2 > pageHashes.length) {
+            long[] old = pageHashes;
+            pageHashes = new long[old.length * 2];
+            for (long h : old) {
+                if (h != 0) {
+                    insert(h);
+                }
+            }
+        }
+        if (insert(hash)) {
+            pageCount++;
+        }
+
+        if (validators != null && !(etag.isEmpty() && lastModified.isEmpty())) {
+            validators.put(hash, new String[]{etag, lastModified});
+        }
+    }
+
+    // The hash a page is stored and looked up under
+    private static long pageHash(String pageUrl) {
+        long hash = BloomFilter.hash(pageUrl);
+        // 0 marks an empty slot
+        return hash == 0 ? 1 : hash;
+    }
+
+    private boolean insert(long hash) {
+        int mask = pageHashes.length - 1;
+        int slot = (int) hash & mask;
+        while (pageHashes[slot] != 0) {
+            if (pageHashes[slot] == hash) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        pageHashes[slot] = hash;
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+        State of a scrape at one moment, as sent to ScrapeProgressListeners. Every count is read when the event is
+    sent, not when anything changed, so an event always shows the latest state however many changes it stands for.
+*/
+public final class ScrapeProgress {
+    private final int pagesRead, totalPages, pagesInDictionary;
+    private final int syllablesFound, uniqueSyllablesFound;
+    private final boolean finished;
+
+    ScrapeProgress(int pagesRead, int totalPages, int pagesInDictionary, int syllablesFound, int uniqueSyllablesFound, boolean finished) {
+        this.pagesRead = pagesRead;
+        this.totalPages = totalPages;
+        this.pagesInDictionary = pagesInDictionary;
+        this.syllablesFound = syllablesFound;
+        this.uniqueSyllablesFound = uniqueSyllablesFound;
+        this.finished = finished;
+    }
+
+    // Pages handed to a fetcher so far
+    public int getPagesRead() {
+        return pagesRead;
+    }
+
+    // The page limit of the scrape
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    // Estimated from the sub-sitemaps read so far
+    public int getPagesInDictionary() {
+        return pagesInDictionary;
+    }
+
+    public int getSyllablesFound() {
+        return syllablesFound;
+    }
+
+    public int getUniqueSyllablesFound() {
+        return uniqueSyllablesFound;
+    }
+
+    // Set on the last event of a scrape, sent once it has stopped and its files are closed
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d pages scraped, %d syllables found (%d unique), %d pages found in dictionary%s",
+                pagesRead, totalPages, syllablesFound, uniqueSyllablesFound, pagesInDictionary, finished ? ", finished" : "");
+    }
+}
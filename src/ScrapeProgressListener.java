@@ -0,0 +1,22 @@
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+        Told about the progress of DictionaryScraper scrapes, see DictionaryScraper.addProgressListener. Events come
+    from a single thread of the scraper's, in order, at most ScrapeSettings.getProgressEventsPerSecond() a second,
+    and the last event of a scrape is always sent, marked finished.
+*/
+public interface ScrapeProgressListener {
+    void progress(ScrapeProgress progress);
+
+    // Hands events to the listener on the Event Dispatch Thread. Events arriving while the EDT is busy are merged,
+    // the listener only seeing the latest, so a slow EDT is never sent a backlog.
+    static ScrapeProgressListener onEventDispatchThread(ScrapeProgressListener listener) {
+        AtomicReference<ScrapeProgress> latest = new AtomicReference<>();
+        return progress -> {
+            if (latest.getAndSet(progress) == null) {
+                SwingUtilities.invokeLater(() -> listener.progress(latest.getAndSet(null)));
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+        Sends progress events for one scrape. Fetch threads only call changed(), which costs a compare-and-set
+    when an event is already due, and events are built and sent on a thread of the publisher's own no sooner than
+    one interval after the last, so any number of changes in between make one event.
+*/
+class ScrapeProgressPublisher {
+    interface Source {
+        ScrapeProgress read(boolean finished);
+    }
+
+    private final List<ScrapeProgressListener> listeners;
+    private final Source source;
+    private final long intervalNanos;
+    private final ScheduledExecutorService thread;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long lastSent;
+    // Only touched on the publisher's thread
+    private boolean finished;
+
+    ScrapeProgressPublisher(List<ScrapeProgressListener> listeners, Source source, double eventsPerSecond) {
+        this.listeners = listeners;
+        this.source = source;
+        this.intervalNanos = (long) (1e9 / eventsPerSecond);
+        this.lastSent = System.nanoTime() - intervalNanos;
+        thread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread publisher = new Thread(runnable, "ScrapeProgressPublisher");
+            publisher.setDaemon(true);
+            return publisher;
+        });
+    }
+
+    void changed() {
+        if (scheduled.compareAndSet(false, true)) {
+            long delay = Math.max(0, lastSent + intervalNanos - System.nanoTime());
+            try {
+                thread.schedule(() -> send(false), delay, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Finished already, nothing is sent after the last event
+            }
+        }
+    }
+
+    // Sends the last event, marked finished, and waits until the listeners have had it
+    void finish() {
+        try {
+            thread.submit(() -> send(true)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+        thread.shutdown();
+    }
+
+    private void send(boolean last) {
+        if (finished) {
+            return;
+        }
+        finished = last;
+        // Cleared before reading the state, so a change made while it is being read schedules another event
+        scheduled.set(false);
+        lastSent = System.nanoTime();
+        ScrapeProgress progress = source.read(last);
+        for (ScrapeProgressListener listener : listeners) {
+            try {
+                listener.progress(progress);
+            } catch (RuntimeException e) {
+                // One failing listener does not keep the event from the others
+                e.printStackTrace();
+            }
+        }
+    }
+}
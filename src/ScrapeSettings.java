@@ -0,0 +1,265 @@
+/*
+        Options for a DictionaryScraper run. The defaults reproduce the original behaviour: one page at a time from
+    dictionary.com, every syllable occurrence written to SyllablesFromDictionary.csv.
+
+        A scrape can be split into shards run by separate processes, each scraping the sub-sitemaps or the range of
+    page URL hashes belonging to its shard into files of its own, which CorpusMerger then combines.
+*/
+public class ScrapeSettings {
+    public enum ShardBy {
+        // Every shardCount-th sub-sitemap of the index, starting at shardIndex
+        SITEMAP,
+        // Pages whose URL hash falls into the shardIndex-th of shardCount equal ranges, every sub-sitemap is read
+        URL_HASH
+    }
+
+    private String dictionaryUrl = DictionaryScraper.DICTIONARY_URL;
+    private int pageLimit = Integer.MAX_VALUE;
+    private int concurrency = 1;
+    private double requestsPerSecond = 100;
+    private boolean deduplicate = false;
+    private boolean writeCounts = false;
+    private boolean resume = false;
+    private int shardIndex = 0, shardCount = 1;
+    private ShardBy shardBy = ShardBy.SITEMAP;
+    private String outputFilename;
+    private int maxRetries = 2;
+    private long retryBackoffMillis = 500;
+    private int writeBufferBytes = 1 << 20;
+    private long flushIntervalMillis = 1000;
+    private long fsyncIntervalMillis = 0;
+    private boolean revalidate = false;
+    private double progressEventsPerSecond = 10;
+
+    public String getDictionaryUrl() {
+        return dictionaryUrl;
+    }
+
+    // Site to scrape, its robots.txt must point at the sitemap index
+    public ScrapeSettings setDictionaryUrl(String dictionaryUrl) {
+        this.dictionaryUrl = dictionaryUrl;
+        return this;
+    }
+
+    public int getPageLimit() {
+        return pageLimit;
+    }
+
+    public ScrapeSettings setPageLimit(int pageLimit) {
+        this.pageLimit = pageLimit;
+        return this;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    // Most pages being fetched at the same time
+    public ScrapeSettings setConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    // Politeness limit on page requests to the host, 0 for none
+    public ScrapeSettings setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+        return this;
+    }
+
+    public boolean isDeduplicate() {
+        return deduplicate || writeCounts;
+    }
+
+    // Write every syllable found once, rather than every time it is found
+    public ScrapeSettings setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+        return this;
+    }
+
+    public boolean isWriteCounts() {
+        return writeCounts;
+    }
+
+    // Write every syllable once, followed by the number of times it was found
+    public ScrapeSettings setWriteCounts(boolean writeCounts) {
+        this.writeCounts = writeCounts;
+        return this;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    // Carry on from the scrape journal left by an earlier run, appending to its output instead of starting over
+    public ScrapeSettings setResume(boolean resume) {
+        this.resume = resume;
+        return this;
+    }
+
+    public boolean isRevalidate() {
+        return revalidate;
+    }
+
+    /*
+            Resume, and also request pages scraped before again, scraping only those that changed since. Only for
+        deduplicated output without counts: a changed page's syllables are added to those it had before, as there is
+        no telling which of them came from that page, which leaves a set of distinct syllables right but would count
+        them twice.
+    */
+    public ScrapeSettings setRevalidate(boolean revalidate) {
+        this.revalidate = revalidate;
+        if (revalidate) {
+            resume = true;
+        }
+        return this;
+    }
+
+    // Throws IllegalArgumentException if the options cannot be used together
+    public void checkConsistent() {
+        if (revalidate && (!deduplicate || writeCounts)) {
+            throw new IllegalArgumentException("Revalidating needs deduplicated output without counts");
+        }
+    }
+
+    public int getWriteBufferBytes() {
+        return writeBufferBytes;
+    }
+
+    // Size of the buffer each output file's records are gathered in before going to disk
+    public ScrapeSettings setWriteBufferBytes(int writeBufferBytes) {
+        this.writeBufferBytes = Math.max(64, writeBufferBytes);
+        return this;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    // Longest time scraped syllables wait in a write buffer before going to disk
+    public ScrapeSettings setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = Math.max(0, flushIntervalMillis);
+        return this;
+    }
+
+    public long getFsyncIntervalMillis() {
+        return fsyncIntervalMillis;
+    }
+
+    // How often output files are synced to the device while scraping, 0 to only sync them at the end
+    public ScrapeSettings setFsyncIntervalMillis(long fsyncIntervalMillis) {
+        this.fsyncIntervalMillis = Math.max(0, fsyncIntervalMillis);
+        return this;
+    }
+
+    public double getProgressEventsPerSecond() {
+        return progressEventsPerSecond;
+    }
+
+    // Most progress events a listener is sent per second, changes in between are merged into the next one
+    public ScrapeSettings setProgressEventsPerSecond(double progressEventsPerSecond) {
+        this.progressEventsPerSecond = Math.max(0.1, progressEventsPerSecond);
+        return this;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    // Times a page is requested again after a connection error or a 429 or 5xx response
+    public ScrapeSettings setMaxRetries(int maxRetries) {
+        this.maxRetries = Math.max(0, maxRetries);
+        return this;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    // Wait before the first retry of a page, doubled before every further one
+    public ScrapeSettings setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+        return this;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // Scrape only shard index of count, from 0
+    public ScrapeSettings setShard(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("No shard " + index + " of " + count);
+        }
+        this.shardIndex = index;
+        this.shardCount = count;
+        return this;
+    }
+
+    public ShardBy getShardBy() {
+        return shardBy;
+    }
+
+    public ScrapeSettings setShardBy(ShardBy shardBy) {
+        this.shardBy = shardBy;
+        return this;
+    }
+
+    boolean includesSitemap(int sitemapIndex) {
+        return shardBy != ShardBy.SITEMAP || sitemapIndex % shardCount == shardIndex;
+    }
+
+    boolean includesPage(String pageUrl) {
+        if (shardBy != ShardBy.URL_HASH || shardCount == 1) {
+            return true;
+        }
+        // The top 32 bits of the hash scaled to the number of shards, so each shard owns one contiguous range
+        long range = BloomFilter.hash(pageUrl) >>> 32;
+        return (int) ((range * shardCount) >>> 32) == shardIndex;
+    }
+
+    // The syllables file written, SyllablesFromDictionary.csv unless sharded, then one per shard
+    public String getOutputFilename() {
+        if (outputFilename != null) {
+            return outputFilename;
+        }
+        if (shardCount > 1) {
+            return shardFilename(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME, shardIndex, shardCount);
+        }
+        return FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME;
+    }
+
+    public ScrapeSettings setOutputFilename(String outputFilename) {
+        this.outputFilename = outputFilename;
+        return this;
+    }
+
+    // Word syllable sequences, written next to the output file
+    public String getSequencesFilename() {
+        String output = getOutputFilename();
+        if (output.equals(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME)) {
+            return FictionalNameGenerator.SYLLABLE_SEQUENCES_FILENAME;
+        }
+        return baseName(output) + ".sequences.csv";
+    }
+
+    public String getJournalFilename() {
+        return baseName(getOutputFilename()) + ".journal";
+    }
+
+    // SyllablesFromDictionary.csv becomes SyllablesFromDictionary.shard-2-of-4.csv
+    public static String shardFilename(String filename, int index, int count) {
+        return baseName(filename) + ".shard-" + index + "-of-" + count + ".csv";
+    }
+
+    private static String baseName(String filename) {
+        return filename.endsWith(".csv") ? filename.substring(0, filename.length() - 4) : filename;
+    }
+}
@@ -0,0 +1,259 @@
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/*
+        Counters and latency histograms of one scrape, for tuning concurrency and rate limits on long runs. Counters
+    are LongAdders and histograms LatencyHistograms, so fetch threads update them without contending.
+
+        Per page three stages are timed: fetch, from sending the request to having the response headers, body,
+    downloading the body while SyllableExtractor scans it as it streams in, and store, handing the syllables found
+    to the aggregator and the output writers. The extractor never holds a whole page, so how much of body is
+    network and how much scanning cannot be told apart here; PageExtractionBenchmark times the scan alone. Queue
+    depths are read when asked for from the fetch slots and writers.
+
+        Readable through JMX as ScraperMetricsMBean, or all at once through snapshot().
+*/
+public class ScraperMetrics implements ScraperMetricsMBean {
+    public static final String OBJECT_NAME = "FictionalNameGenerator:type=ScraperMetrics";
+
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    private final LongAdder pagesFetched = new LongAdder(), pagesNotModified = new LongAdder();
+    private final LongAdder bytesDownloaded = new LongAdder(), syllablesFound = new LongAdder();
+    private final LongAdder httpErrors = new LongAdder(), ioErrors = new LongAdder(), retries = new LongAdder();
+    private volatile String lastError = "";
+
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram bodyLatency = new LatencyHistogram();
+    private final LatencyHistogram storeLatency = new LatencyHistogram();
+
+    private volatile IntSupplier fetchesInFlight = () -> 0, writeQueueDepth = () -> 0;
+
+    // Makes these the metrics JMX sees, replacing those of an earlier scrape
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    void setQueueDepthSources(IntSupplier fetchesInFlight, IntSupplier writeQueueDepth) {
+        this.fetchesInFlight = fetchesInFlight;
+        this.writeQueueDepth = writeQueueDepth;
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        fetchesInFlight = () -> 0;
+        writeQueueDepth = () -> 0;
+    }
+
+    void pageFetched(long fetchNanos, long bodyNanos, long storeNanos) {
+        pagesFetched.increment();
+        fetchLatency.record(fetchNanos);
+        bodyLatency.record(bodyNanos);
+        storeLatency.record(storeNanos);
+    }
+
+    void pageNotModified(long fetchNanos) {
+        pagesNotModified.increment();
+        fetchLatency.record(fetchNanos);
+    }
+
+    void bytesDownloaded(long bytes) {
+        bytesDownloaded.add(bytes);
+    }
+
+    void syllablesFound(int syllables) {
+        syllablesFound.add(syllables);
+    }
+
+    void httpError(String url, int status) {
+        httpErrors.increment();
+        lastError = "HTTP " + status + " from " + url;
+    }
+
+    void ioError(String url, Exception e) {
+        ioErrors.increment();
+        lastError = e + " from " + url;
+    }
+
+    void retried() {
+        retries.increment();
+    }
+
+    @Override
+    public long getPagesFetched() {
+        return pagesFetched.sum();
+    }
+
+    @Override
+    public long getPagesNotModified() {
+        return pagesNotModified.sum();
+    }
+
+    @Override
+    public double getPagesPerSecond() {
+        double seconds = getElapsedSeconds();
+        return seconds == 0 ? 0 : (pagesFetched.sum() + pagesNotModified.sum()) / seconds;
+    }
+
+    @Override
+    public long getBytesDownloaded() {
+        return bytesDownloaded.sum();
+    }
+
+    @Override
+    public long getSyllablesFound() {
+        return syllablesFound.sum();
+    }
+
+    @Override
+    public long getHttpErrors() {
+        return httpErrors.sum();
+    }
+
+    @Override
+    public long getIoErrors() {
+        return ioErrors.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public int getFetchesInFlight() {
+        return fetchesInFlight.getAsInt();
+    }
+
+    @Override
+    public int getWriteQueueDepth() {
+        return writeQueueDepth.getAsInt();
+    }
+
+    @Override
+    public double getFetchMeanMillis() {
+        return fetchLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getFetchP50Millis() {
+        return fetchLatency.getPercentileMillis(50);
+    }
+
+    @Override
+    public double getFetchP99Millis() {
+        return fetchLatency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getBodyMeanMillis() {
+        return bodyLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getBodyP50Millis() {
+        return bodyLatency.getPercentileMillis(50);
+    }
+
+    @Override
+    public double getBodyP99Millis() {
+        return bodyLatency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getStoreMeanMillis() {
+        return storeLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getStoreP50Millis() {
+        return storeLatency.getPercentileMillis(50);
+    }
+
+    @Override
+    public double getStoreP99Millis() {
+        return storeLatency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getElapsedSeconds() {
+        long end = endNanos;
+        return ((end == 0 ? System.nanoTime() : end) - startNanos) / 1e9;
+    }
+
+    public LatencyHistogram getFetchLatency() {
+        return fetchLatency;
+    }
+
+    public LatencyHistogram getBodyLatency() {
+        return bodyLatency;
+    }
+
+    public LatencyHistogram getStoreLatency() {
+        return storeLatency;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    // Every figure at one moment, counters being read one after another while the scrape carries on
+    public static final class Snapshot {
+        public final double elapsedSeconds, pagesPerSecond;
+        public final long pagesFetched, pagesNotModified, bytesDownloaded, syllablesFound;
+        public final long httpErrors, ioErrors, retries;
+        public final int fetchesInFlight, writeQueueDepth;
+        public final double fetchP50Millis, fetchP99Millis, bodyP50Millis, bodyP99Millis, storeP50Millis, storeP99Millis;
+        public final String lastError;
+
+        private Snapshot(ScraperMetrics metrics) {
+            elapsedSeconds = metrics.getElapsedSeconds();
+            pagesPerSecond = metrics.getPagesPerSecond();
+            pagesFetched = metrics.getPagesFetched();
+            pagesNotModified = metrics.getPagesNotModified();
+            bytesDownloaded = metrics.getBytesDownloaded();
+            syllablesFound = metrics.getSyllablesFound();
+            httpErrors = metrics.getHttpErrors();
+            ioErrors = metrics.getIoErrors();
+            retries = metrics.getRetries();
+            fetchesInFlight = metrics.getFetchesInFlight();
+            writeQueueDepth = metrics.getWriteQueueDepth();
+            fetchP50Millis = metrics.fetchLatency.getPercentileMillis(50);
+            fetchP99Millis = metrics.fetchLatency.getPercentileMillis(99);
+            bodyP50Millis = metrics.bodyLatency.getPercentileMillis(50);
+            bodyP99Millis = metrics.bodyLatency.getPercentileMillis(99);
+            storeP50Millis = metrics.storeLatency.getPercentileMillis(50);
+            storeP99Millis = metrics.storeLatency.getPercentileMillis(99);
+            lastError = metrics.getLastError();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f s, %d pages (%d unchanged) at %.1f pages/s, %d KB, %d syllables, "
+                            + "fetch p50/p99 %.1f/%.1f ms, body %.2f/%.2f ms, store %.3f/%.3f ms, "
+                            + "%d HTTP errors, %d I/O errors, %d retries, %d in flight, %d queued for writing",
+                    elapsedSeconds, pagesFetched, pagesNotModified, pagesPerSecond, bytesDownloaded / 1024, syllablesFound,
+                    fetchP50Millis, fetchP99Millis, bodyP50Millis, bodyP99Millis, storeP50Millis, storeP99Millis,
+                    httpErrors, ioErrors, retries, fetchesInFlight, writeQueueDepth);
+        }
+    }
+}
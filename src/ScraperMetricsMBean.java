@@ -0,0 +1,47 @@
+/*
+        Management interface of ScraperMetrics, registered as FictionalNameGenerator:type=ScraperMetrics while the
+    scraper is in use. Durations are in milliseconds.
+*/
+public interface ScraperMetricsMBean {
+    long getPagesFetched();
+
+    long getPagesNotModified();
+
+    double getPagesPerSecond();
+
+    long getBytesDownloaded();
+
+    long getSyllablesFound();
+
+    long getHttpErrors();
+
+    long getIoErrors();
+
+    long getRetries();
+
+    String getLastError();
+
+    int getFetchesInFlight();
+
+    int getWriteQueueDepth();
+
+    double getFetchMeanMillis();
+
+    double getFetchP50Millis();
+
+    double getFetchP99Millis();
+
+    double getBodyMeanMillis();
+
+    double getBodyP50Millis();
+
+    double getBodyP99Millis();
+
+    double getStoreMeanMillis();
+
+    double getStoreP50Millis();
+
+    double getStoreP99Millis();
+
+    double getElapsedSeconds();
+}
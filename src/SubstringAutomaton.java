@@ -0,0 +1,111 @@
+import java.util.Arrays;
+import java.util.List;
+
+/*
+        Aho-Corasick automaton over a handful of patterns, compiled into a complete transition table so that
+    following a character is a single array read whatever the state. Characters appearing in no pattern share
+    one character class that always leads back to the start, which keeps the table as narrow as the patterns'
+    alphabet. Every state carries flags telling which kinds of pattern the text read so far ends with, so a word
+    can be checked character by character as it is assembled.
+*/
+final class SubstringAutomaton {
+    static final int START = 0;
+    // The text read so far ends with a banned pattern
+    static final int BANNED = 1;
+    // The text read so far ends with the required suffix
+    static final int SUFFIX = 2;
+
+    // Character class of every character up to the highest one in a pattern, 0 for none
+    private final int[] classOf;
+    private final int classCount;
+    // next[state * classCount + class]
+    private final int[] next;
+    private final byte[] flags;
+
+    SubstringAutomaton(List<String> bannedPatterns, String suffix) {
+        int maxChar = 0, totalLength = suffix.length();
+        for (String pattern : bannedPatterns) {
+            totalLength += pattern.length();
+            for (int i = 0; i < pattern.length(); i++) {
+                maxChar = Math.max(maxChar, pattern.charAt(i));
+            }
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            maxChar = Math.max(maxChar, suffix.charAt(i));
+        }
+
+        classOf = new int[maxChar + 1];
+        int classes = 1;
+        for (String pattern : bannedPatterns) {
+            classes = assignClasses(pattern, classes);
+        }
+        classCount = assignClasses(suffix, classes);
+
+        // The trie, -1 where it has no edge
+        int[] trie = new int[(totalLength + 1) * classCount];
+        Arrays.fill(trie, -1);
+        byte[] stateFlags = new byte[totalLength + 1];
+        int states = 1;
+        for (String pattern : bannedPatterns) {
+            states = addPattern(trie, stateFlags, states, pattern, BANNED);
+        }
+        states = addPattern(trie, stateFlags, states, suffix, SUFFIX);
+
+        // Breadth first, so the failure state of every state is complete before the state itself
+        next = new int[states * classCount];
+        flags = Arrays.copyOf(stateFlags, states);
+        int[] failure = new int[states];
+        int[] queue = new int[states];
+        int head = 0, tail = 0;
+        queue[tail++] = START;
+        while (head < tail) {
+            int state = queue[head++];
+            for (int c = 0; c < classCount; c++) {
+                int child = trie[state * classCount + c];
+                int fallback = state == START ? START : next[failure[state] * classCount + c];
+                if (child == -1) {
+                    next[state * classCount + c] = fallback;
+                } else {
+                    failure[child] = fallback;
+                    flags[child] |= flags[fallback];
+                    next[state * classCount + c] = child;
+                    queue[tail++] = child;
+                }
+            }
+        }
+    }
+
+    int step(int state, char c) {
+        return next[state * classCount + (c < classOf.length ? classOf[c] : 0)];
+    }
+
+    int getFlags(int state) {
+        return flags[state];
+    }
+
+    private int assignClasses(String pattern, int classes) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (classOf[c] == 0) {
+                classOf[c] = classes++;
+            }
+        }
+        return classes;
+    }
+
+    private int addPattern(int[] trie, byte[] stateFlags, int states, String pattern, int flag) {
+        if (pattern.isEmpty()) {
+            return states;
+        }
+        int state = START;
+        for (int i = 0; i < pattern.length(); i++) {
+            int edge = state * classCount + classOf[pattern.charAt(i)];
+            if (trie[edge] == -1) {
+                trie[edge] = states++;
+            }
+            state = trie[edge];
+        }
+        stateFlags[state] |= flag;
+        return states;
+    }
+}
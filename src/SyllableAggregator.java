@@ -0,0 +1,96 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+        Counts syllables as the scraper finds them, so the output can hold every distinct syllable once instead of
+    every occurrence. Syllables are spread over stripes by hash, each a SyllablePool.Builder behind its own lock,
+    so pages being scraped at the same time rarely wait on each other. Builders keep syllables in a char arena
+    with a long count each, and since the dictionary only has some tens of thousands of distinct syllables, memory
+    stays at a few hundred kilobytes however many pages are scraped.
+*/
+public class SyllableAggregator {
+    private static final int STRIPES = 16;
+
+    private final SyllablePool.Builder[] stripes = new SyllablePool.Builder[STRIPES];
+    private final LongAdder totalCount = new LongAdder();
+    private final AtomicInteger uniqueCount = new AtomicInteger();
+
+    public SyllableAggregator() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new SyllablePool.Builder();
+        }
+    }
+
+    public void add(CharSequence syllable) {
+        add(syllable, 1);
+    }
+
+    public void add(CharSequence syllable, long count) {
+        SyllablePool.Builder stripe = stripes[(int) BloomFilter.hash(syllable) & (STRIPES - 1)];
+        synchronized (stripe) {
+            int before = stripe.size();
+            stripe.add(syllable, count);
+            if (stripe.size() > before) {
+                uniqueCount.incrementAndGet();
+            }
+        }
+        totalCount.add(count);
+    }
+
+    public void add(char[] chars, int offset, int length) {
+        SyllablePool.Builder stripe = stripes[(int) BloomFilter.hash(chars, offset, length) & (STRIPES - 1)];
+        synchronized (stripe) {
+            int before = stripe.size();
+            stripe.add(chars, offset, length);
+            if (stripe.size() > before) {
+                uniqueCount.incrementAndGet();
+            }
+        }
+        totalCount.increment();
+    }
+
+    // Adds the syllables of a .csv file in any of the formats SyllablePool reads, such as the output of an earlier run
+    public void addCsv(Reader in) throws IOException {
+        SyllablePool pool = new SyllablePool.Builder().addCsv(in).build();
+        for (int i = 0; i < pool.size(); i++) {
+            add(pool.get(i), pool.getCount(i));
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    public int getUniqueCount() {
+        return uniqueCount.get();
+    }
+
+    // Every distinct syllable with its count so far. Stripes are copied one at a time, adding carries on meanwhile.
+    public SyllablePool snapshot() {
+        SyllablePool.Builder merged = new SyllablePool.Builder();
+        for (SyllablePool.Builder stripe : stripes) {
+            synchronized (stripe) {
+                merged.addAll(stripe);
+            }
+        }
+        return merged.build();
+    }
+
+    // Replaces the file with a snapshot in one move, so readers and crashes only ever see a complete file
+    public void writeSnapshot(File file, boolean withCounts) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temporary), StandardCharsets.UTF_8))) {
+            snapshot().writeCsv(out, withCounts);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
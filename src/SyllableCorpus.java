@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+        Immutable in-memory snapshot of the three syllable files, mapped from the compiled corpus when there is an
+    up-to-date one and parsed from the .csv files otherwise. Each file is loaded once and the snapshot is kept
+    until one of the files changes on disk, at which point a new snapshot is parsed on the watcher thread and swapped
+    in atomically. Callers holding an older snapshot keep using it undisturbed.
+*/
+public final class SyllableCorpus {
+    // Quiet period after a file event before reloading, so a file being written in several chunks is parsed once
+    private static final long RELOAD_DEBOUNCE_MILLIS = 50;
+
+    private static volatile SyllableCorpus current;
+    // Set by set(), the watcher leaves such a snapshot alone until reload() goes back to the files
+    private static boolean pinned;
+    private static Thread watcher;
+
+    private final SyllablePool dictionarySyllables;
+    private final SyllablePool occasionalSyllables;
+    private final SyllablePool mandatorySyllables;
+
+    SyllableCorpus(SyllablePool dictionarySyllables, SyllablePool occasionalSyllables, SyllablePool mandatorySyllables) {
+        this.dictionarySyllables = dictionarySyllables;
+        this.occasionalSyllables = occasionalSyllables;
+        this.mandatorySyllables = mandatorySyllables;
+    }
+
+    // Returns the current snapshot, loading it and starting the file watcher on first use
+    public static SyllableCorpus get() {
+        SyllableCorpus corpus = current;
+        if (corpus == null) {
+            synchronized (SyllableCorpus.class) {
+                if (current == null) {
+                    current = load();
+                    startWatching();
+                }
+                corpus = current;
+            }
+        }
+        return corpus;
+    }
+
+    // Re-parses the files immediately instead of waiting for the watcher. Does nothing if no snapshot was loaded yet.
+    public static void reload() {
+        synchronized (SyllableCorpus.class) {
+            pinned = false;
+            if (current != null) {
+                current = load();
+            }
+        }
+    }
+
+    // Swaps in a snapshot that was not loaded from the files, for benchmarks measuring a corpus of a given size.
+    // The watcher is not started by this, and changes to the files no longer replace it; a later reload() goes back
+    // to the files.
+    static void set(SyllableCorpus corpus) {
+        synchronized (SyllableCorpus.class) {
+            current = corpus;
+            pinned = true;
+        }
+    }
+
+    public SyllablePool getDictionarySyllables() {
+        return dictionarySyllables;
+    }
+
+    public SyllablePool getOccasionalSyllables() {
+        return occasionalSyllables;
+    }
+
+    public SyllablePool getMandatorySyllables() {
+        return mandatorySyllables;
+    }
+
+    private static SyllableCorpus load() {
+        if (CompiledSyllableCorpus.isUpToDate(FictionalNameGenerator.SYLLABLES_COMPILED_FILENAME,
+                FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME,
+                FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME,
+                FictionalNameGenerator.SYLLABLES_MANDATORY_FILENAME)) {
+            try {
+                return CompiledSyllableCorpus.map(FictionalNameGenerator.SYLLABLES_COMPILED_FILENAME);
+            } catch (IOException e) {
+                // Fall back to parsing the .csv files
+                e.printStackTrace();
+            }
+        }
+
+        return new SyllableCorpus(
+                SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME),
+                SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME),
+                SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_MANDATORY_FILENAME));
+    }
+
+    // Reload on behalf of the watcher, which keeps a snapshot from set() in place
+    private static void reloadUnlessPinned() {
+        synchronized (SyllableCorpus.class) {
+            if (!pinned && current != null) {
+                current = load();
+            }
+        }
+    }
+
+    private static boolean isCorpusFile(Path changed) {
+        String name = changed.getFileName().toString();
+        return name.equals(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME)
+                || name.equals(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME)
+                || name.equals(FictionalNameGenerator.SYLLABLES_MANDATORY_FILENAME)
+                || name.equals(FictionalNameGenerator.SYLLABLES_COMPILED_FILENAME);
+    }
+
+    private static void startWatching() {
+        final WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Paths.get("").toAbsolutePath().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            // Without a watcher the corpus is still usable, it just has to be reloaded by hand
+            e.printStackTrace();
+            return;
+        }
+
+        watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean corpusChanged = false;
+
+                    // Keep draining until the directory has been quiet for a moment
+                    while (key != null) {
+                        for (WatchEvent<?> event : key.pollEvents()) {
+                            if (event.context() instanceof Path && isCorpusFile((Path) event.context())) {
+                                corpusChanged = true;
+                            }
+                        }
+                        if (!key.reset()) {
+                            return;
+                        }
+                        key = watchService.poll(RELOAD_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+
+                    if (corpusChanged) {
+                        reloadUnlessPinned();
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Watcher is shutting down
+            }
+        }, "SyllableCorpusWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+}
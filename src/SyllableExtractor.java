@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/*
+        Finds the syllables on a dictionary page in one pass over its bytes. Gives the same syllables as the
+    original line-by-line parsing: the first line with a '·' in it is split on '"', every piece containing a '·'
+    and none of < > ( ) / is split on '·', ' ' and '-' into syllables, and syllables are kept lowercased and
+    stripped down to a-z until the first one with something other than a letter in it.
+
+        Lines before the syllable line are only skimmed as bytes, for line breaks and the two bytes of '·' (C2 B7),
+    so nothing is decoded until the line that matters. That line is decoded from UTF-8 by hand, so '·' is
+    recognised whatever the platform charset, and syllables are handed to the listener as ranges of a reusable
+    buffer with no String in between. Reading stops at the end of the syllable line, the rest of the page is never
+    read. An extractor is reused page after page but is not thread-safe.
+*/
+public class SyllableExtractor {
+    public interface Listener {
+        void syllable(char[] chars, int offset, int length);
+
+        void endOfWord();
+    }
+
+    private static final char MIDDLE_DOT = '·';
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final byte[] input = new byte[16384];
+    // The line being skimmed, when it runs over more than one read
+    private byte[] line = new byte[1024];
+    private int lineLength;
+
+    // Kept syllables of the current quoted piece, back to back, and where each one ends
+    private char[] piece = new char[256];
+    private int[] syllableEnds = new int[32];
+    private int pieceLength, syllableCount, syllableStart;
+
+    private boolean pieceHasDot, pieceRejected, syllableHasNonLetter, restOfPieceDropped;
+    private Listener listener;
+    private int words;
+
+    // UTF-8 decoding state carried over between reads
+    private int codePoint, continuationBytes;
+
+    // Reads the page up to the end of its syllable line and returns the number of words found
+    public int extract(InputStream in, Listener listener) throws IOException {
+        this.listener = listener;
+        words = 0;
+        codePoint = 0;
+        continuationBytes = 0;
+        resetPiece();
+
+        lineLength = 0;
+        boolean dotInLine = false;
+        byte previous = 0;
+
+        int read;
+        while ((read = in.read(input)) != -1) {
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                byte b = input[i];
+                if (b == '\n' || b == '\r') {
+                    if (dotInLine) {
+                        appendToLine(lineStart, i - lineStart);
+                        parseLine();
+                        return words;
+                    }
+                    lineLength = 0;
+                    lineStart = i + 1;
+                } else if (b == (byte) 0xB7 && previous == (byte) 0xC2) {
+                    dotInLine = true;
+                }
+                previous = b;
+            }
+            appendToLine(lineStart, read - lineStart);
+        }
+        if (dotInLine) {
+            parseLine();
+        }
+        return words;
+    }
+
+    private void appendToLine(int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(input, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private void parseLine() {
+        for (int i = 0; i < lineLength; i++) {
+            decode(line[i] & 0xFF);
+        }
+        if (continuationBytes > 0) {
+            accept(REPLACEMENT);
+        }
+        endPiece();
+    }
+
+    private void decode(int b) {
+        if (continuationBytes > 0) {
+            if ((b & 0xC0) == 0x80) {
+                codePoint = codePoint << 6 | (b & 0x3F);
+                if (--continuationBytes == 0) {
+                    if (codePoint >= 0x10000) {
+                        accept(Character.highSurrogate(codePoint));
+                        accept(Character.lowSurrogate(codePoint));
+                    } else {
+                        accept((char) codePoint);
+                    }
+                }
+                return;
+            }
+            // Truncated sequence, the byte starts something new
+            continuationBytes = 0;
+            accept(REPLACEMENT);
+        }
+
+        if (b < 0x80) {
+            accept((char) b);
+        } else if ((b & 0xE0) == 0xC0) {
+            codePoint = b & 0x1F;
+            continuationBytes = 1;
+        } else if ((b & 0xF0) == 0xE0) {
+            codePoint = b & 0x0F;
+            continuationBytes = 2;
+        } else if ((b & 0xF8) == 0xF0) {
+            codePoint = b & 0x07;
+            continuationBytes = 3;
+        } else {
+            accept(REPLACEMENT);
+        }
+    }
+
+    private void accept(char c) {
+        switch (c) {
+            case '"':
+                endPiece();
+                break;
+            case MIDDLE_DOT:
+                pieceHasDot = true;
+                endSyllable();
+                break;
+            case ' ':
+            case '-':
+                endSyllable();
+                break;
+            case '<':
+            case '>':
+            case '(':
+            case ')':
+            case '/':
+                pieceRejected = true;
+                syllableHasNonLetter = true;
+                break;
+            default:
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                    if (!restOfPieceDropped) {
+                        if (pieceLength == piece.length) {
+                            piece = Arrays.copyOf(piece, pieceLength * 2);
+                        }
+                        piece[pieceLength++] = (char) (c | 0x20);
+                    }
+                } else if (!Character.isLetter(c)) {
+                    syllableHasNonLetter = true;
+                }
+                // Letters outside a-z pass the check but are left out of the syllable
+                break;
+        }
+    }
+
+    private void endSyllable() {
+        if (!restOfPieceDropped) {
+            if (syllableHasNonLetter) {
+                restOfPieceDropped = true;
+                pieceLength = syllableStart;
+            } else if (pieceLength > syllableStart) {
+                if (syllableCount == syllableEnds.length) {
+                    syllableEnds = Arrays.copyOf(syllableEnds, syllableCount * 2);
+                }
+                syllableEnds[syllableCount++] = pieceLength;
+                syllableStart = pieceLength;
+            }
+        }
+        syllableHasNonLetter = false;
+    }
+
+    private void endPiece() {
+        endSyllable();
+        if (pieceHasDot && !pieceRejected && syllableCount > 0) {
+            int start = 0;
+            for (int i = 0; i < syllableCount; i++) {
+                listener.syllable(piece, start, syllableEnds[i] - start);
+                start = syllableEnds[i];
+            }
+            listener.endOfWord();
+            words++;
+        }
+        resetPiece();
+    }
+
+    private void resetPiece() {
+        pieceLength = 0;
+        syllableCount = 0;
+        syllableStart = 0;
+        pieceHasDot = false;
+        pieceRejected = false;
+        syllableHasNonLetter = false;
+        restOfPieceDropped = false;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+        The syllables of a SyllablePool grouped by length, so that constrained generation can ask which lengths a
+    pool can contribute, how likely each is, and pick a syllable of a given length with the pool's weighting.
+    Built by one counting sort over the pool; a bucket is a run of pool indices with running totals of their
+    occurrence counts, searched to make a weighted pick.
+*/
+final class SyllableLengthIndex {
+    // Distinct syllable lengths, shortest first, and where each one's run of syllables ends
+    private final int[] lengths, bucketEnds;
+    // Pool indices grouped by length, in pool order within a length
+    private final int[] syllables;
+    // cumulativeCounts[i] counts every occurrence of syllables[0] to syllables[i]
+    private final long[] cumulativeCounts;
+
+    SyllableLengthIndex(SyllablePool pool) {
+        int size = pool.size();
+        int[] perLength = new int[pool.getMaxLength() + 2];
+        for (int i = 0; i < size; i++) {
+            perLength[pool.length(i) + 1]++;
+        }
+
+        int bucketCount = 0;
+        for (int length = 0; length <= pool.getMaxLength(); length++) {
+            if (perLength[length + 1] > 0) {
+                bucketCount++;
+            }
+            // From here on perLength[length] is where syllables of that length start
+            perLength[length + 1] += perLength[length];
+        }
+
+        lengths = new int[bucketCount];
+        bucketEnds = new int[bucketCount];
+        int bucket = 0;
+        for (int length = 0; length <= pool.getMaxLength(); length++) {
+            if (perLength[length + 1] > perLength[length]) {
+                lengths[bucket] = length;
+                bucketEnds[bucket++] = perLength[length + 1];
+            }
+        }
+
+        syllables = new int[size];
+        for (int i = 0; i < size; i++) {
+            syllables[perLength[pool.length(i)]++] = i;
+        }
+        cumulativeCounts = new long[size];
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += pool.getCount(syllables[i]);
+            cumulativeCounts[i] = total;
+        }
+    }
+
+    int getBucketCount() {
+        return lengths.length;
+    }
+
+    int getLength(int bucket) {
+        return lengths[bucket];
+    }
+
+    int getStart(int bucket) {
+        return bucket == 0 ? 0 : bucketEnds[bucket - 1];
+    }
+
+    int getEnd(int bucket) {
+        return bucketEnds[bucket];
+    }
+
+    // Occurrences of all syllables of the bucket's length
+    long getWeight(int bucket) {
+        int start = getStart(bucket);
+        return cumulativeCounts[bucketEnds[bucket] - 1] - (start == 0 ? 0 : cumulativeCounts[start - 1]);
+    }
+
+    // Pool index of the i-th syllable across all buckets
+    int getSyllable(int i) {
+        return syllables[i];
+    }
+
+    long getCount(int i) {
+        return cumulativeCounts[i] - (i == 0 ? 0 : cumulativeCounts[i - 1]);
+    }
+
+    // Maps a uniform random number in [0, 1) to a pool index of the bucket's length, weighted by occurrence count
+    int pick(int bucket, double random) {
+        int start = getStart(bucket), end = bucketEnds[bucket];
+        long before = start == 0 ? 0 : cumulativeCounts[start - 1];
+        long target = before + (long) (random * (cumulativeCounts[end - 1] - before));
+
+        // First syllable whose running total passes the target
+        int low = start, high = end - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeCounts[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return syllables[low];
+    }
+}
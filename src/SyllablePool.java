@@ -0,0 +1,385 @@
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+        Compact, read-only store of deduplicated syllables. All syllable characters live in one contiguous char buffer
+    and are addressed through an offsets table, so a pool of millions of syllables costs a handful of arrays
+    instead of one String object per syllable. The buffers either wrap heap arrays or are mapped from a compiled
+    corpus file. Duplicates found while loading are folded into occurrence counts, which keeps random picks weighted
+    the same way the duplicate-heavy .csv files always were.
+*/
+public final class SyllablePool {
+    public static final SyllablePool EMPTY = new Builder().build();
+
+    // Either wrap heap arrays or are views into a memory-mapped compiled corpus, see CompiledSyllableCorpus
+    private final CharBuffer chars;
+    // Syllable i occupies chars[offsets[i]] up to, but not including, chars[offsets[i + 1]]
+    private final IntBuffer offsets;
+    // Running total of occurrence counts, cumulativeCounts[i] counts every occurrence of syllables 0 to i. Longs, as
+    // merged shards can hold more occurrences than an int counts. Null when every syllable occurs exactly once.
+    private final LongBuffer cumulativeCounts;
+    // Constant time weighted picks, null together with cumulativeCounts
+    private final AliasTable aliasTable;
+    private final int size;
+    private final int maxLength;
+    // Built the first time constrained generation needs it
+    private volatile SyllableLengthIndex lengthIndex;
+    private volatile SyllableTrie trie;
+
+    SyllablePool(CharBuffer chars, IntBuffer offsets, LongBuffer cumulativeCounts, AliasTable aliasTable, int maxLength) {
+        this.chars = chars;
+        this.offsets = offsets;
+        this.cumulativeCounts = cumulativeCounts;
+        this.aliasTable = aliasTable;
+        this.size = offsets.limit() - 1;
+        this.maxLength = maxLength;
+    }
+
+    public static SyllablePool fromCsv(String filename) {
+        Builder builder = new Builder();
+
+        File file = new File(filename);
+        if (file.exists()) {
+            try (Reader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                builder.addCsv(in);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public int length(int index) {
+        return offsets.get(index + 1) - offsets.get(index);
+    }
+
+    public long getCount(int index) {
+        if (cumulativeCounts == null) {
+            return 1;
+        }
+        return index == 0 ? cumulativeCounts.get(0) : cumulativeCounts.get(index) - cumulativeCounts.get(index - 1);
+    }
+
+    // Number of syllables read before deduplication
+    public long getTotalCount() {
+        if (cumulativeCounts == null) {
+            return size;
+        }
+        return size == 0 ? 0 : cumulativeCounts.get(size - 1);
+    }
+
+    public boolean isWeighted() {
+        return cumulativeCounts != null;
+    }
+
+    public String get(int index) {
+        char[] syllable = new char[length(index)];
+        copyInto(index, syllable, 0);
+        return new String(syllable);
+    }
+
+    // Copies syllable index into dst at position pos and returns the position just past it
+    public int copyInto(int index, char[] dst, int pos) {
+        int length = length(index);
+        chars.get(offsets.get(index), dst, pos, length);
+        return pos + length;
+    }
+
+    public void appendTo(int index, StringBuilder out) {
+        int offset = offsets.get(index);
+        out.append(chars, offset, offset + length(index));
+    }
+
+    // Maps a uniform random number in [0, 1) to a syllable index, weighted by occurrence count
+    public int pick(double random) {
+        if (aliasTable == null) {
+            return (int) (random * size);
+        }
+        return aliasTable.pick(random);
+    }
+
+    // Writes the syllables in the ",\n" separated format, each followed by ":count" if withCounts is set
+    public void writeCsv(Writer out, boolean withCounts) throws IOException {
+        char[] syllable = new char[maxLength];
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.write(",\n");
+            }
+            out.write(syllable, 0, copyInto(i, syllable, 0));
+            if (withCounts) {
+                out.write(':');
+                out.write(Long.toString(getCount(i)));
+            }
+        }
+    }
+
+    // Rough footprint of the arrays or mapped regions backing this pool
+    public long getFootprintBytes() {
+        return 3 * 16L + chars.capacity() * 2L + offsets.capacity() * 4L + (cumulativeCounts == null ? 0 : cumulativeCounts.capacity() * 16L);
+    }
+
+    int getCharCount() {
+        return chars.limit();
+    }
+
+    CharBuffer getChars() {
+        return chars.duplicate();
+    }
+
+    IntBuffer getOffsets() {
+        return offsets.duplicate();
+    }
+
+    LongBuffer getCumulativeCounts() {
+        return cumulativeCounts == null ? null : cumulativeCounts.duplicate();
+    }
+
+    AliasTable getAliasTable() {
+        return aliasTable;
+    }
+
+    // Index for prefix lookups, prefix sampling and splitting strings into syllables, built on first use.
+    // Two threads asking at once may both build it, either result will do.
+    public SyllableTrie getTrie() {
+        SyllableTrie built = trie;
+        if (built == null) {
+            built = SyllableTrie.of(this);
+            trie = built;
+        }
+        return built;
+    }
+
+    // Two threads asking at once may both build it, either result will do
+    SyllableLengthIndex getLengthIndex() {
+        SyllableLengthIndex index = lengthIndex;
+        if (index == null) {
+            index = new SyllableLengthIndex(this);
+            lengthIndex = index;
+        }
+        return index;
+    }
+
+    /*
+            Accumulates syllables into a growing char arena, deduplicating them through an open addressing hash
+        table of syllable indices so that no String is created per syllable while loading.
+    */
+    public static final class Builder {
+        private char[] chars = new char[256];
+        private int charCount;
+        private int[] offsets = new int[65];
+        private long[] counts = new long[64];
+        private int size;
+
+        private int[] table = new int[128];
+
+        public Builder() {
+            Arrays.fill(table, -1);
+        }
+
+        public Builder add(CharSequence syllable) {
+            return add(syllable, 1);
+        }
+
+        public Builder add(CharSequence syllable, long count) {
+            ensureCharCapacity(syllable.length());
+            for (int i = 0; i < syllable.length(); i++) {
+                chars[charCount + i] = syllable.charAt(i);
+            }
+            commit(syllable.length(), count);
+            return this;
+        }
+
+        public Builder add(char[] buffer, int offset, int length) {
+            return add(buffer, offset, length, 1);
+        }
+
+        public Builder add(char[] buffer, int offset, int length, long count) {
+            addAndGetIndex(buffer, offset, length, count);
+            return this;
+        }
+
+        // Adds the syllable and returns its index in the pool that will be built
+        public int addAndGetIndex(char[] buffer, int offset, int length, long count) {
+            ensureCharCapacity(length);
+            System.arraycopy(buffer, offset, chars, charCount, length);
+            return commit(length, count);
+        }
+
+        // Reads syllables separated by ",\n", the format written by DictionaryScraper. An entry may end in ":count"
+        // to stand for that many occurrences. Empty entries are skipped.
+        public Builder addCsv(Reader in) throws IOException {
+            char[] buffer = new char[8192];
+            int length = 0;
+            boolean pendingComma = false;
+            char[] token = new char[64];
+
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+                    if (pendingComma) {
+                        pendingComma = false;
+                        if (c == '\n') {
+                            addEntry(token, length);
+                            length = 0;
+                            continue;
+                        }
+                        token = appendChar(token, length++, ',');
+                    }
+                    if (c == ',') {
+                        pendingComma = true;
+                    } else {
+                        token = appendChar(token, length++, c);
+                    }
+                }
+            }
+            if (pendingComma) {
+                token = appendChar(token, length++, ',');
+            }
+            addEntry(token, length);
+            return this;
+        }
+
+        private void addEntry(char[] token, int length) {
+            // Up to 18 digits, which always fit a long, as merged shards can count past the int range
+            long count = 0, multiplier = 1;
+            int digits = 0;
+            while (digits < length && digits < 18 && Character.isDigit(token[length - 1 - digits])) {
+                count += (token[length - 1 - digits] - '0') * multiplier;
+                multiplier *= 10;
+                digits++;
+            }
+
+            if (digits > 0 && digits < length - 1 && token[length - 1 - digits] == ':') {
+                if (count > 0) {
+                    add(token, 0, length - 1 - digits, count);
+                }
+            } else if (length > 0) {
+                add(token, 0, length);
+            }
+        }
+
+        // Adds every syllable of another builder, with its count
+        public Builder addAll(Builder other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.chars, other.offsets[i], other.offsets[i + 1] - other.offsets[i], other.counts[i]);
+            }
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public SyllablePool build() {
+            long[] cumulativeCounts = new long[size];
+            long total = 0;
+            int maxLength = 0;
+            for (int i = 0; i < size; i++) {
+                total = Math.addExact(total, counts[i]);
+                cumulativeCounts[i] = total;
+                maxLength = Math.max(maxLength, offsets[i + 1] - offsets[i]);
+            }
+            boolean weighted = total != size;
+            return new SyllablePool(CharBuffer.wrap(Arrays.copyOf(chars, charCount)), IntBuffer.wrap(Arrays.copyOf(offsets, size + 1)),
+                    weighted ? LongBuffer.wrap(cumulativeCounts) : null,
+                    weighted ? AliasTable.fromCumulativeWeights(LongBuffer.wrap(cumulativeCounts)) : null, maxLength);
+        }
+
+        private static char[] appendChar(char[] token, int position, char c) {
+            if (position == token.length) {
+                token = Arrays.copyOf(token, token.length * 2);
+            }
+            token[position] = c;
+            return token;
+        }
+
+        private void ensureCharCapacity(int extra) {
+            if (charCount + extra > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + extra));
+            }
+        }
+
+        // The candidate syllable has been copied to the end of the arena; keep it if new, otherwise bump its count
+        private int commit(int length, long count) {
+            int hash = hash(chars, charCount, length);
+            int mask = table.length - 1;
+            int slot = hash & mask;
+
+            while (table[slot] != -1) {
+                int existing = table[slot];
+                if (equalsCandidate(existing, length)) {
+                    counts[existing] = Math.addExact(counts[existing], count);
+                    return existing;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (size + 1 == counts.length) {
+                counts = Arrays.copyOf(counts, counts.length * 2);
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            table[slot] = size;
+            counts[size] = count;
+            offsets[size] = charCount;
+            charCount += length;
+            size++;
+            offsets[size] = charCount;
+
+            if (size * 2 > table.length) {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        private boolean equalsCandidate(int index, int length) {
+            int start = offsets[index];
+            if (offsets[index + 1] - start != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (chars[start + i] != chars[charCount + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            Arrays.fill(table, -1);
+            int mask = table.length - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = hash(chars, offsets[i], offsets[i + 1] - offsets[i]) & mask;
+                while (table[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i;
+            }
+        }
+
+        private static int hash(char[] chars, int offset, int length) {
+            int h = 0;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + chars[offset + i];
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
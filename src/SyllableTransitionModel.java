@@ -0,0 +1,209 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/*
+        Alternative to picking every syllable independently: learns which syllable follows which from the per-word
+    syllable sequences the scraper writes, and walks those transitions when building a word. Names then only
+    contain syllable pairs that occur in real words.
+
+        Transitions are kept in compressed sparse row form. Row s lists the syllables seen after syllable s in
+    targets[rowStarts[s]] up to targets[rowStarts[s + 1]], with running transition counts alongside in
+    cumulativeWeights, so the next syllable is found by binary search. The extra last row holds the syllables
+    words start with. A syllable never followed by another continues from that start row.
+*/
+public class SyllableTransitionModel {
+    private final SyllablePool syllables;
+    private final int[] rowStarts;
+    private final int[] targets;
+    private final int[] cumulativeWeights;
+
+    private SyllableTransitionModel(SyllablePool syllables, int[] rowStarts, int[] targets, int[] cumulativeWeights) {
+        this.syllables = syllables;
+        this.rowStarts = rowStarts;
+        this.targets = targets;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    // Reads a file with one word per line, its syllables separated by commas
+    public static SyllableTransitionModel fromFile(String filename) throws IOException {
+        try (Reader in = new BufferedReader(new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8))) {
+            return fromSequences(in);
+        }
+    }
+
+    public static SyllableTransitionModel fromSequences(Reader in) throws IOException {
+        SyllablePool.Builder builder = new SyllablePool.Builder();
+        // Every transition as (from << 32 | to), the start row being added once the number of syllables is known
+        long[] transitions = new long[1024];
+        int transitionCount = 0;
+
+        char[] buffer = new char[8192];
+        char[] token = new char[64];
+        int length = 0, previous = -1;
+
+        int read;
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            read = in.read(buffer);
+            if (read == -1) {
+                endOfInput = true;
+                read = 1;
+                buffer[0] = '\n';
+            }
+
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == ',' || c == '\n') {
+                    if (length > 0) {
+                        int current = builder.addAndGetIndex(token, 0, length, 1);
+                        if (transitionCount == transitions.length) {
+                            transitions = Arrays.copyOf(transitions, transitions.length * 2);
+                        }
+                        transitions[transitionCount++] = ((long) previous << 32) | current;
+                        previous = current;
+                    }
+                    length = 0;
+                    if (c == '\n') {
+                        previous = -1;
+                    }
+                } else if (c != '\r') {
+                    if (length == token.length) {
+                        token = Arrays.copyOf(token, length * 2);
+                    }
+                    token[length++] = c;
+                }
+            }
+        }
+
+        int startRow = builder.size();
+        for (int i = 0; i < transitionCount; i++) {
+            if ((int) (transitions[i] >> 32) == -1) {
+                transitions[i] = ((long) startRow << 32) | (transitions[i] & 0xFFFFFFFFL);
+            }
+        }
+
+        // Sorting groups transitions by row, so equal pairs become runs that are counted in one pass
+        Arrays.sort(transitions, 0, transitionCount);
+
+        int[] rowStarts = new int[startRow + 2];
+        int[] targets = new int[transitionCount];
+        int[] cumulativeWeights = new int[transitionCount];
+        int pairs = 0;
+
+        for (int i = 0; i < transitionCount; ) {
+            int j = i;
+            while (j < transitionCount && transitions[j] == transitions[i]) {
+                j++;
+            }
+            int row = (int) (transitions[i] >> 32);
+            rowStarts[row + 1]++;
+            targets[pairs] = (int) transitions[i];
+            cumulativeWeights[pairs] = j - i;
+            pairs++;
+            i = j;
+        }
+
+        for (int row = 0; row <= startRow; row++) {
+            rowStarts[row + 1] += rowStarts[row];
+            for (int k = rowStarts[row] + 1; k < rowStarts[row + 1]; k++) {
+                cumulativeWeights[k] += cumulativeWeights[k - 1];
+            }
+        }
+
+        return new SyllableTransitionModel(builder.build(),
+                rowStarts, Arrays.copyOf(targets, pairs), Arrays.copyOf(cumulativeWeights, pairs));
+    }
+
+    public List<String> generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency) {
+        List<String> wordsOut = new ArrayList<>(numberOfWords);
+        generateNames(numberOfWords, minSyllables, maxSyllables, occasionalSyllableFrequency, false,
+                (name, offset, length) -> wordsOut.add(new String(name, offset, length)));
+        return wordsOut;
+    }
+
+    // Same rules as FictionalNameGenerator.generateNames, except that dictionary syllables follow learnt transitions
+    public void generateNames(int numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency,
+                              boolean capitalise, NameSink sink) {
+        SyllableCorpus corpus = SyllableCorpus.get();
+        int longestSyllable = Math.max(syllables.getMaxLength(),
+                Math.max(corpus.getOccasionalSyllables().getMaxLength(), corpus.getMandatorySyllables().getMaxLength()));
+        char[] word = new char[Math.max(1, maxSyllables) * longestSyllable];
+        RandomGenerator random = ThreadLocalRandom.current();
+
+        for (int i = 0; i < numberOfWords; i++) {
+            int length = assembleName(corpus, minSyllables, maxSyllables, occasionalSyllableFrequency, random, word);
+            if (capitalise && length > 0) {
+                word[0] = Character.toUpperCase(word[0]);
+            }
+            sink.accept(word, 0, length);
+        }
+    }
+
+    int assembleName(SyllableCorpus corpus, int minSyllables, int maxSyllables, float occasionalSyllableFrequency,
+                     RandomGenerator random, char[] word) {
+        SyllablePool occasionalSyllables = corpus.getOccasionalSyllables();
+        SyllablePool mandatorySyllables = corpus.getMandatorySyllables();
+        int startRow = syllables.size();
+
+        int syllablesCount = minSyllables + (int) (random.nextDouble() * (maxSyllables - minSyllables));
+        int customSyllableLocation = (int) (random.nextDouble() * syllablesCount);
+        int length = 0, state = startRow;
+
+        for (int j = 0; j < syllablesCount; j++) {
+            float occasionalSyllableOdds = random.nextFloat();
+
+            // Syllables from outside the model break the chain, the word carries on as if it started there
+            if (j == customSyllableLocation && !mandatorySyllables.isEmpty()) {
+                length = mandatorySyllables.copyInto(mandatorySyllables.pick(random.nextDouble()), word, length);
+                state = startRow;
+            } else if (occasionalSyllableOdds < occasionalSyllableFrequency && !occasionalSyllables.isEmpty()) {
+                length = occasionalSyllables.copyInto(occasionalSyllables.pick(random.nextDouble()), word, length);
+                state = startRow;
+            } else if (startRow > 0) {
+                state = next(state, random.nextDouble());
+                length = syllables.copyInto(state, word, length);
+            }
+        }
+        return length;
+    }
+
+    // Picks the syllable following state, weighted by how often each transition was seen
+    int next(int state, double random) {
+        int from = rowStarts[state], to = rowStarts[state + 1];
+        if (from == to) {
+            state = syllables.size();
+            from = rowStarts[state];
+            to = rowStarts[state + 1];
+        }
+
+        // Running totals restart in every row
+        int target = (int) (random * cumulativeWeights[to - 1]);
+        int low = from, high = to - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeWeights[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return targets[low];
+    }
+
+    public SyllablePool getSyllables() {
+        return syllables;
+    }
+
+    public int getTransitionCount() {
+        return targets.length;
+    }
+
+    public long getFootprintBytes() {
+        return syllables.getFootprintBytes() + rowStarts.length * 4L + targets.length * 8L;
+    }
+}
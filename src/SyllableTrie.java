@@ -0,0 +1,337 @@
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/*
+        Index over the syllables of a SyllablePool for questions about their characters: which syllables start with a
+    fragment, a random one of those weighted like SyllablePool.pick, and how a string splits into syllables.
+
+        The syllables are sorted into lexicographic order, so the syllables under any node of a trie over them are a
+    contiguous run of that order, and a prefix query comes down to finding a node and reading its run. The trie is
+    path-compressed, a node existing only where syllables branch or end, so there are fewer nodes than twice the
+    syllables whatever their lengths. Nodes live in a handful of int arrays laid out breadth first, every node's
+    children next to each other and sorted, with edge characters read from the pool itself rather than copied.
+*/
+public final class SyllableTrie {
+    private static final int ROOT = 0;
+    // Runs this short are sorted by insertion
+    private static final int INSERTION_SORT_THRESHOLD = 12;
+
+    private final SyllablePool pool;
+    private final CharBuffer chars;
+    private final IntBuffer offsets;
+
+    // Pool indices in lexicographic order, and running totals of their occurrence counts in that order
+    private final int[] sorted;
+    private final long[] cumulativeCounts;
+
+    // Node n stands for the first depth[n] characters of every syllable in sorted[runStart[n]] to sorted[runEnd[n] - 1].
+    // It is a syllable itself if the first of those is exactly that long. Its children are the nodes from
+    // childStart[n] up to, but not including, childStart[n + 1].
+    private final int[] depth, runStart, runEnd, childStart;
+    private final int nodeCount;
+
+    private SyllableTrie(SyllablePool pool) {
+        this.pool = pool;
+        chars = pool.getChars();
+        offsets = pool.getOffsets();
+        int size = pool.size();
+
+        sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        sort(0, size, 0);
+        cumulativeCounts = new long[size];
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += pool.getCount(sorted[i]);
+            cumulativeCounts[i] = total;
+        }
+
+        // Every node but the root either ends a syllable or branches, so there are at most 2 * size of them
+        int capacity = 2 * size + 1;
+        int[] nodeDepth = new int[capacity], nodeRunStart = new int[capacity], nodeRunEnd = new int[capacity];
+        int[] nodeChildStart = new int[capacity + 1];
+        nodeRunEnd[ROOT] = size;
+        int count = 1;
+
+        // Breadth first, a node's children are appended while it is visited
+        for (int node = 0; node < count; node++) {
+            nodeChildStart[node] = count;
+            int d = nodeDepth[node], i = nodeRunStart[node], end = nodeRunEnd[node];
+            if (i < end && length(sorted[i]) == d) {
+                i++;
+            }
+            while (i < end) {
+                int c = charAt(sorted[i], d);
+                int j = i + 1;
+                while (j < end && charAt(sorted[j], d) == c) {
+                    j++;
+                }
+                nodeDepth[count] = d + 1 + commonPrefix(sorted[i], sorted[j - 1], d + 1);
+                nodeRunStart[count] = i;
+                nodeRunEnd[count] = j;
+                count++;
+                i = j;
+            }
+        }
+        nodeChildStart[count] = count;
+
+        nodeCount = count;
+        depth = Arrays.copyOf(nodeDepth, count);
+        runStart = Arrays.copyOf(nodeRunStart, count);
+        runEnd = Arrays.copyOf(nodeRunEnd, count);
+        childStart = Arrays.copyOf(nodeChildStart, count + 1);
+    }
+
+    // Built once per pool and kept with it, see SyllablePool.getTrie
+    static SyllableTrie of(SyllablePool pool) {
+        return new SyllableTrie(pool);
+    }
+
+    public SyllablePool getPool() {
+        return pool;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    // Pool index of the syllable, or -1 if it is not one
+    public int indexOf(CharSequence syllable) {
+        int node = find(syllable);
+        if (node < 0 || depth[node] != syllable.length() || length(sorted[runStart[node]]) != syllable.length()) {
+            return -1;
+        }
+        return sorted[runStart[node]];
+    }
+
+    public boolean contains(CharSequence syllable) {
+        return indexOf(syllable) >= 0;
+    }
+
+    // Number of distinct syllables starting with the prefix, the prefix itself included
+    public int countWithPrefix(CharSequence prefix) {
+        int node = find(prefix);
+        return node < 0 ? 0 : runEnd[node] - runStart[node];
+    }
+
+    // Pool indices of the syllables starting with the prefix, in lexicographic order
+    public int[] withPrefix(CharSequence prefix) {
+        int node = find(prefix);
+        return node < 0 ? new int[0] : Arrays.copyOfRange(sorted, runStart[node], runEnd[node]);
+    }
+
+    // Maps a uniform random number in [0, 1) to the pool index of a syllable starting with the prefix, weighted by
+    // occurrence count, or -1 if none does
+    public int pickWithPrefix(CharSequence prefix, double random) {
+        int node = find(prefix);
+        return node < 0 ? -1 : pickInRun(runStart[node], runEnd[node], random);
+    }
+
+    /*
+            Splits the text into syllables of the pool, returning their pool indices, or null if it cannot be split.
+        Of all the ways it can be split the one returned is the most likely to have been picked syllable by syllable,
+        each with odds by its occurrence count, found by a DP over the positions of the text: from every position
+        that can be reached, one walk down the trie along the rest of the text finds every syllable starting there.
+    */
+    public int[] segment(CharSequence text) {
+        int n = text.length();
+        double totalCount = cumulativeCounts.length == 0 ? 1 : cumulativeCounts[cumulativeCounts.length - 1];
+        // Best log-likelihood of splitting the first i characters, and the syllable that ends the best split there
+        double[] best = new double[n + 1];
+        int[] lastSyllable = new int[n + 1];
+        Arrays.fill(best, Double.NEGATIVE_INFINITY);
+        best[0] = 0;
+
+        int[] found = new int[n];
+        for (int start = 0; start < n; start++) {
+            if (best[start] == Double.NEGATIVE_INFINITY) {
+                continue;
+            }
+            int count = prefixesOf(text, start, found);
+            for (int i = 0; i < count; i++) {
+                int end = start + length(found[i]);
+                double score = best[start] + Math.log(pool.getCount(found[i]) / totalCount);
+                if (score > best[end]) {
+                    best[end] = score;
+                    lastSyllable[end] = found[i];
+                }
+            }
+        }
+
+        if (best[n] == Double.NEGATIVE_INFINITY) {
+            return null;
+        }
+        int count = 0;
+        for (int position = n; position > 0; position -= length(lastSyllable[position])) {
+            count++;
+        }
+        int[] syllables = new int[count];
+        for (int position = n; position > 0; position -= length(lastSyllable[position])) {
+            syllables[--count] = lastSyllable[position];
+        }
+        return syllables;
+    }
+
+    // Node whose run holds exactly the syllables starting with the prefix, -1 if there are none
+    int find(CharSequence prefix) {
+        int node = ROOT, position = 0, n = prefix.length();
+        while (position < n) {
+            node = child(node, prefix.charAt(position));
+            if (node < 0) {
+                return -1;
+            }
+            int first = sorted[runStart[node]];
+            int end = Math.min(n, depth[node]);
+            for (; position < end; position++) {
+                if (charAt(first, position) != prefix.charAt(position)) {
+                    return -1;
+                }
+            }
+        }
+        return node;
+    }
+
+    int getRunStart(int node) {
+        return runStart[node];
+    }
+
+    int getRunEnd(int node) {
+        return runEnd[node];
+    }
+
+    // Pool index of the syllable at this position of the lexicographic order
+    int getSorted(int position) {
+        return sorted[position];
+    }
+
+    // Puts the pool indices of the syllables the text continues with from the position into found, shortest first,
+    // and returns how many there are. One walk down the trie finds them all.
+    int prefixesOf(CharSequence text, int from, int[] found) {
+        int count = 0, node = ROOT, position = from, n = text.length();
+        while (position < n) {
+            node = child(node, text.charAt(position));
+            if (node < 0) {
+                break;
+            }
+            int first = sorted[runStart[node]];
+            int end = Math.min(n, from + depth[node]);
+            while (position < end && charAt(first, position - from) == text.charAt(position)) {
+                position++;
+            }
+            if (position < from + depth[node]) {
+                // The text ends or differs inside the edge
+                break;
+            }
+            if (length(first) == depth[node]) {
+                found[count++] = first;
+            }
+        }
+        return count;
+    }
+
+    private int pickInRun(int start, int end, double random) {
+        long before = start == 0 ? 0 : cumulativeCounts[start - 1];
+        long target = before + (long) (random * (cumulativeCounts[end - 1] - before));
+        int low = start, high = end - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeCounts[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return sorted[low];
+    }
+
+    // Child of the node whose edge starts with the character, -1 if there is none
+    private int child(int node, char c) {
+        int low = childStart[node], high = childStart[node + 1] - 1, d = depth[node];
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int label = charAt(sorted[runStart[middle]], d);
+            if (label < c) {
+                low = middle + 1;
+            } else if (label > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int length(int syllable) {
+        return offsets.get(syllable + 1) - offsets.get(syllable);
+    }
+
+    // Character at the position of the syllable, -1 past its end so that shorter syllables sort first
+    private int charAt(int syllable, int position) {
+        int start = offsets.get(syllable);
+        return start + position < offsets.get(syllable + 1) ? chars.get(start + position) : -1;
+    }
+
+    // Characters the two syllables share from position on
+    private int commonPrefix(int a, int b, int position) {
+        int shared = 0;
+        while (true) {
+            int c = charAt(a, position + shared);
+            if (c < 0 || c != charAt(b, position + shared)) {
+                return shared;
+            }
+            shared++;
+        }
+    }
+
+    // Multikey quicksort of sorted[from..to) on the characters from position on
+    private void sort(int from, int to, int position) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int pivot = charAt(sorted[(from + to) >>> 1], position);
+            // sorted[from..less) below the pivot, [less..i) equal, (greater..to) above
+            int less = from, i = from, greater = to - 1;
+            while (i <= greater) {
+                int c = charAt(sorted[i], position);
+                if (c < pivot) {
+                    swap(less++, i++);
+                } else if (c > pivot) {
+                    swap(i, greater--);
+                } else {
+                    i++;
+                }
+            }
+            sort(from, less, position);
+            sort(greater + 1, to, position);
+            if (pivot < 0) {
+                // All equal because all ended, and syllables are distinct, so at most one
+                return;
+            }
+            from = less;
+            to = greater + 1;
+            position++;
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && compare(sorted[j - 1], sorted[j], position) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private int compare(int a, int b, int position) {
+        while (true) {
+            int ca = charAt(a, position), cb = charAt(b, position);
+            if (ca != cb || ca < 0) {
+                return ca - cb;
+            }
+            position++;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int t = sorted[i];
+        sorted[i] = sorted[j];
+        sorted[j] = t;
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/*
+        Generates names that are unique across every call made on the same instance. Names already produced are
+    remembered in a Bloom filter over a 64-bit hash of the assembled characters, so memory is fixed up front by the
+    expected number of names and the false positive budget. A false positive only ever costs a fresh name being
+    rejected, never a duplicate getting through.
+
+        Generation stops early and reports the syllable space as exhausted when every possible word has been
+    produced, or when too many candidates in a row turn out to be repeats.
+*/
+public class UniqueNameGenerator {
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.001;
+    public static final int DEFAULT_MAX_CONSECUTIVE_REJECTIONS = 10000;
+
+    private final BloomFilter seenNames;
+    private final RandomGenerator random;
+    private int maxConsecutiveRejections = DEFAULT_MAX_CONSECUTIVE_REJECTIONS;
+
+    private long generatedCount, rejectedCount;
+    private boolean exhausted;
+
+    public UniqueNameGenerator(long expectedNames) {
+        this(expectedNames, DEFAULT_FALSE_POSITIVE_RATE, false);
+    }
+
+    public UniqueNameGenerator(long expectedNames, double falsePositiveRate, boolean offHeap) {
+        this(expectedNames, falsePositiveRate, offHeap, new SplittableRandom());
+    }
+
+    public UniqueNameGenerator(long expectedNames, double falsePositiveRate, boolean offHeap, RandomGenerator random) {
+        this.seenNames = new BloomFilter(expectedNames, falsePositiveRate, offHeap);
+        this.random = random;
+    }
+
+    public UniqueNameGenerator setMaxConsecutiveRejections(int maxConsecutiveRejections) {
+        this.maxConsecutiveRejections = maxConsecutiveRejections;
+        return this;
+    }
+
+    // Hands up to numberOfWords new names to the sink and returns how many it produced, which is
+    // fewer than asked for only when the syllable space is exhausted
+    public long generateNames(long numberOfWords, int minSyllables, int maxSyllables, float occasionalSyllableFrequency,
+                              boolean capitalise, NameSink sink) {
+        SyllableCorpus corpus = SyllableCorpus.get();
+        char[] word = FictionalNameGenerator.getWordBuffer(corpus, maxSyllables);
+        long possibleWords = countPossibleWords(corpus, minSyllables, maxSyllables);
+        long produced = 0;
+        int consecutiveRejections = 0;
+
+        while (produced < numberOfWords) {
+            if (generatedCount >= possibleWords || consecutiveRejections >= maxConsecutiveRejections) {
+                exhausted = true;
+                break;
+            }
+
+            int length = FictionalNameGenerator.assembleName(corpus, minSyllables, maxSyllables, occasionalSyllableFrequency, random, word);
+            if (!seenNames.add(BloomFilter.hash(word, 0, length))) {
+                rejectedCount++;
+                consecutiveRejections++;
+                continue;
+            }
+            consecutiveRejections = 0;
+
+            if (capitalise && length > 0) {
+                word[0] = Character.toUpperCase(word[0]);
+            }
+            sink.accept(word, 0, length);
+            generatedCount++;
+            produced++;
+        }
+        return produced;
+    }
+
+    public long getGeneratedCount() {
+        return generatedCount;
+    }
+
+    // Candidates thrown away because they had (probably) been produced before
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public double getCurrentFalsePositiveRate() {
+        return seenNames.getCurrentFalsePositiveRate();
+    }
+
+    // Upper bound on distinct words, the number of syllable sequences generateNames can pick, capped at Long.MAX_VALUE
+    static long countPossibleWords(SyllableCorpus corpus, int minSyllables, int maxSyllables) {
+        long syllables = (long) corpus.getDictionarySyllables().size() + corpus.getOccasionalSyllables().size()
+                + corpus.getMandatorySyllables().size();
+        if (syllables == 0) {
+            return 0;
+        }
+
+        int longest = Math.max(minSyllables, maxSyllables - 1);
+        long total = 0, sequences = 1;
+        for (int k = 1; k <= longest; k++) {
+            sequences = sequences > Long.MAX_VALUE / syllables ? Long.MAX_VALUE : sequences * syllables;
+            if (k >= minSyllables) {
+                total = total > Long.MAX_VALUE - sequences ? Long.MAX_VALUE : total + sequences;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,23 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+        Executors running every task on a virtual thread of its own when the runtime has them, so blocking on the
+    network costs no platform thread. Looked up by reflection so that the code still builds and runs on runtimes
+    without them, which get a fixed pool of daemon threads instead.
+*/
+public class VirtualThreads {
+    public static ExecutorService newPerTaskExecutor(String threadName, int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(fallbackThreads, runnable -> {
+                Thread thread = new Thread(runnable, threadName + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BatchedFileWriterTest {
+    private static final File FILE = new File("BatchedFileWriterTest.csv");
+    private static final byte[] SEPARATOR = {',', '\n'};
+
+    @Test
+    public void testConcurrentRecordsArriveWhole() throws Exception {
+        // A small buffer and queue, so records keep spilling and producers keep waiting
+        BatchedFileWriter writer = new BatchedFileWriter(FILE.toPath(), false, SEPARATOR, 16, 256, 1000, 0);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        writer.write(("t" + thread + "-" + i + ",\nt" + thread + "-" + i + "b").getBytes(StandardCharsets.UTF_8));
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        String[] entries = new String(Files.readAllBytes(FILE.toPath()), StandardCharsets.UTF_8).split(",\n");
+        Assert.assertEquals(8 * 2000 * 2, entries.length);
+        Set<String> unique = new HashSet<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            // Both halves of a record stay next to each other
+            Assert.assertEquals(entries[i] + "b", entries[i + 1]);
+            unique.add(entries[i]);
+        }
+        Assert.assertEquals(8 * 2000, unique.size());
+    }
+
+    @Test
+    public void testFlushReturnsLengthAndAppendKeepsSeparator() throws IOException {
+        BatchedFileWriter writer = new BatchedFileWriter(FILE.toPath(), false, SEPARATOR, 16, 1 << 16, 60000, 0);
+        writer.write("dic".getBytes(StandardCharsets.UTF_8));
+        writer.write("tion".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(9, writer.flush());
+        Assert.assertEquals(9, FILE.length());
+        writer.close();
+
+        BatchedFileWriter appending = new BatchedFileWriter(FILE.toPath(), true, SEPARATOR, 16, 1 << 16, 60000, 0);
+        appending.write("ar".getBytes(StandardCharsets.UTF_8));
+        appending.close();
+        Assert.assertEquals("dic,\ntion,\nar", new String(Files.readAllBytes(FILE.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testBufferIsWrittenAfterFlushInterval() throws Exception {
+        BatchedFileWriter writer = new BatchedFileWriter(FILE.toPath(), false, SEPARATOR, 16, 1 << 16, 20, 20);
+        writer.write("ven".getBytes(StandardCharsets.UTF_8));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (FILE.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(3, FILE.length());
+        writer.close();
+    }
+
+    @After
+    public void tearDown() {
+        if (FILE.exists()) {
+            FILE.delete();
+        }
+    }
+}
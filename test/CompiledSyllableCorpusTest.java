@@ -0,0 +1,146 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class CompiledSyllableCorpusTest {
+    private static final String COMPILED_FILENAME = "CompiledSyllableCorpusTest.corpus";
+    private static final String DICTIONARY_FILENAME = "CompiledSyllableCorpusTestDictionary.csv";
+    private static final String OCCASIONAL_FILENAME = "CompiledSyllableCorpusTestOccasional.csv";
+    private static final String MISSING_FILENAME = "CompiledSyllableCorpusTestMissing.csv";
+
+    @Test
+    public void testMappedCorpusMatchesParsedCorpus() throws IOException {
+        createCsv(DICTIONARY_FILENAME, "dic,\ntion,\nar,\ny,\ntion,\nal,\ntion");
+        createCsv(OCCASIONAL_FILENAME, "zor,\nqua,\nxil");
+
+        SyllableCorpus parsed = CompiledSyllableCorpus.compile(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME);
+        SyllableCorpus mapped = CompiledSyllableCorpus.map(COMPILED_FILENAME);
+
+        assertSamePool(parsed.getDictionarySyllables(), mapped.getDictionarySyllables());
+        assertSamePool(parsed.getOccasionalSyllables(), mapped.getOccasionalSyllables());
+        Assert.assertTrue(mapped.getMandatorySyllables().isEmpty());
+
+        Assert.assertTrue(mapped.getDictionarySyllables().isWeighted());
+        Assert.assertFalse(mapped.getOccasionalSyllables().isWeighted());
+        Assert.assertEquals(3, mapped.getDictionarySyllables().getCount(1));
+    }
+
+    @Test
+    public void testCountsBeyondIntRangeAreMapped() throws IOException {
+        SyllablePool dictionary = new SyllablePool.Builder().add("tion", 3_000_000_000L).add("er", 7).add("al", 2_000_000_000).build();
+        CompiledSyllableCorpus.write(COMPILED_FILENAME, new SyllablePool[]{dictionary, SyllablePool.EMPTY, SyllablePool.EMPTY});
+
+        SyllablePool mapped = CompiledSyllableCorpus.map(COMPILED_FILENAME).getDictionarySyllables();
+        assertSamePool(dictionary, mapped);
+        Assert.assertEquals(3_000_000_000L, mapped.getCount(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsFilesThatAreNotCompiledCorpora() throws IOException {
+        createCsv(COMPILED_FILENAME, "dic,\ntion");
+        CompiledSyllableCorpus.map(COMPILED_FILENAME);
+    }
+
+    @Test
+    public void testChangedDeletedOrAddedSourcesMakeCorpusOutOfDate() throws IOException {
+        createCsv(DICTIONARY_FILENAME, "dic,\ntion,\nar");
+        createCsv(OCCASIONAL_FILENAME, "zor,\nqua");
+        CompiledSyllableCorpus.compile(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME);
+        Assert.assertTrue(CompiledSyllableCorpus.isUpToDate(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME));
+
+        // Edited within the same modification time as the compiled file
+        File dictionary = new File(DICTIONARY_FILENAME);
+        long lastModified = dictionary.lastModified();
+        createCsv(DICTIONARY_FILENAME, "dic,\ntion,\nary");
+        dictionary.setLastModified(lastModified);
+        Assert.assertFalse(CompiledSyllableCorpus.isUpToDate(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME));
+
+        CompiledSyllableCorpus.compile(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME);
+        new File(OCCASIONAL_FILENAME).delete();
+        Assert.assertFalse(CompiledSyllableCorpus.isUpToDate(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME));
+
+        CompiledSyllableCorpus.compile(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME);
+        Assert.assertTrue(CompiledSyllableCorpus.isUpToDate(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME));
+        createCsv(MISSING_FILENAME, "kel");
+        Assert.assertFalse(CompiledSyllableCorpus.isUpToDate(COMPILED_FILENAME, DICTIONARY_FILENAME, OCCASIONAL_FILENAME, MISSING_FILENAME));
+    }
+
+    @Test
+    public void testCorpusCutShortIsRejected() throws IOException {
+        createCsv(DICTIONARY_FILENAME, "dic,\ntion,\nar,\ny,\ntion,\nal,\ntion");
+        CompiledSyllableCorpus.compile(COMPILED_FILENAME, DICTIONARY_FILENAME, MISSING_FILENAME, MISSING_FILENAME);
+
+        Path compiled = Paths.get(COMPILED_FILENAME);
+        byte[] whole = Files.readAllBytes(compiled);
+        for (int length : new int[]{whole.length - 2, whole.length / 2, 40, 10}) {
+            Files.write(compiled, Arrays.copyOf(whole, length));
+            try {
+                CompiledSyllableCorpus.map(COMPILED_FILENAME);
+                Assert.fail("Mapped a corpus cut short to " + length + " of " + whole.length + " bytes");
+            } catch (IOException e) {
+                // Expected, SyllableCorpus parses the .csv files instead
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorpusWithDamagedDirectoryIsRejected() throws IOException {
+        createCsv(DICTIONARY_FILENAME, "dic,\ntion,\nar");
+        CompiledSyllableCorpus.compile(COMPILED_FILENAME, DICTIONARY_FILENAME, MISSING_FILENAME, MISSING_FILENAME);
+
+        // The dictionary section's syllable count
+        try (RandomAccessFile file = new RandomAccessFile(COMPILED_FILENAME, "rw")) {
+            file.seek(16);
+            file.write(new byte[]{0, 0, 0, 0x40});
+        }
+        CompiledSyllableCorpus.map(COMPILED_FILENAME);
+    }
+
+    @After
+    public void tearDown() {
+        deleteFile(COMPILED_FILENAME);
+        deleteFile(DICTIONARY_FILENAME);
+        deleteFile(OCCASIONAL_FILENAME);
+        deleteFile(MISSING_FILENAME);
+    }
+
+    private void assertSamePool(SyllablePool expected, SyllablePool actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(expected.getTotalCount(), actual.getTotalCount());
+        Assert.assertEquals(expected.getMaxLength(), actual.getMaxLength());
+
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i), actual.get(i));
+            Assert.assertEquals(expected.getCount(i), actual.getCount(i));
+        }
+        for (double random = 0.0; random < 1.0; random += 0.01) {
+            Assert.assertEquals(expected.pick(random), actual.pick(random));
+        }
+    }
+
+    private void createCsv(String filename, String content) {
+        try {
+            PrintWriter writer = new PrintWriter(filename, "UTF-8");
+            writer.write(content);
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void deleteFile(String filename) {
+        File file = new File(filename);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class DictionaryScraperTest {
+    private LocalDictionaryServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalDictionaryServer(4, 50);
+    }
+
+    @Test
+    public void testConcurrentScrapeFetchesEveryPageOnce() {
+        server.setPageDelayMillis(20);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setConcurrency(8)
+                .setRequestsPerSecond(0));
+
+        Assert.assertEquals(server.getTotalPages(), DictionaryScraper.getPagesRead());
+        Assert.assertEquals(server.getTotalPages(), server.getPageRequestCount());
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), DictionaryScraper.getSyllablesFoundSoFar());
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).getTotalCount());
+
+        Assert.assertTrue(server.getMaxPagesInFlight() > 1);
+        Assert.assertTrue(server.getMaxPagesInFlight() <= 8);
+    }
+
+    @Test
+    public void testSitemapsAreReadOnlyOnce() {
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setConcurrency(4)
+                .setRequestsPerSecond(0));
+
+        Assert.assertEquals(1, server.getRequestCount("/sitemap.xml"));
+        for (int shard = 0; shard < 4; shard++) {
+            Assert.assertEquals(1, server.getRequestCount("/sitemaps/" + shard + ".xml.gz"));
+        }
+        Assert.assertEquals(server.getTotalPages(), DictionaryScraper.getTotalPagesInDictionary());
+    }
+
+    @Test
+    public void testPageLimitIsRespected() {
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setPageLimit(30)
+                .setConcurrency(4)
+                .setRequestsPerSecond(0));
+
+        Assert.assertEquals(30, server.getPageRequestCount());
+        // Only the first sub-sitemap was needed
+        Assert.assertEquals(0, server.getRequestCount("/sitemaps/1.xml.gz"));
+    }
+
+    @Test
+    public void testRateLimiterSpacesOutRequests() {
+        long start = System.nanoTime();
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setPageLimit(40)
+                .setConcurrency(8)
+                .setRequestsPerSecond(50));
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        // A burst of 5 requests, then one every 20 ms
+        Assert.assertEquals(40, server.getPageRequestCount());
+        Assert.assertTrue("Took " + elapsedMillis + " ms", elapsedMillis >= 600);
+    }
+
+    @Test
+    public void testStoppedScrapeResumesWhereItStopped() throws Exception {
+        server.setPageDelayMillis(5);
+        ScrapeSettings settings = new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setConcurrency(4)
+                .setRequestsPerSecond(0);
+
+        Thread scrape = new Thread(() -> DictionaryScraper.generateSyllablesFromWebsiteFile(settings));
+        scrape.start();
+        while (scrape.isAlive() && server.getPageRequestCount() < 120) {
+            Thread.sleep(1);
+        }
+        DictionaryScraper.stopWorking();
+        scrape.join();
+        Assert.assertTrue(server.getPageRequestCount() < server.getTotalPages());
+
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings.setResume(true));
+
+        // Every page scraped exactly once over both runs, and the finished sub-sitemap was not read again
+        Assert.assertEquals(server.getTotalPages(), server.getPageRequestCount());
+        Assert.assertEquals(1, server.getRequestCount("/sitemaps/0.xml.gz"));
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).getTotalCount());
+    }
+
+    @Test
+    public void testOutputPastTheLastCheckpointIsDiscardedOnResume() throws IOException {
+        ScrapeSettings settings = new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setPageLimit(70)
+                .setRequestsPerSecond(0);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings);
+
+        // As if the process died after writing more syllables but before recording their pages
+        try (FileWriter out = new FileWriter(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME, true)) {
+            out.write(",\nlost,\nwords");
+        }
+
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings.setPageLimit(Integer.MAX_VALUE).setResume(true));
+
+        Assert.assertEquals(server.getTotalPages(), server.getPageRequestCount());
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).getTotalCount());
+    }
+
+    @Test
+    public void testCheckpointTornByACrashIsDiscardedOnResume() throws IOException {
+        ScrapeSettings settings = new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setPageLimit(150)
+                .setRequestsPerSecond(0);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings);
+
+        // As if the process died while appending the last checkpoint: its pages are there, its C line is cut short
+        Path journal = Paths.get(DictionaryScraper.SCRAPE_JOURNAL_FILENAME);
+        List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        int lastCheckpoint = lines.size() - 1;
+        Assert.assertTrue(lines.get(lastCheckpoint).startsWith("C\t"));
+        int tornPages = 0;
+        for (int i = lastCheckpoint - 1; i >= 0 && !lines.get(i).startsWith("C\t"); i--) {
+            tornPages += lines.get(i).startsWith("P\t") ? 1 : 0;
+        }
+        Assert.assertTrue(tornPages > 0);
+        String torn = String.join("\n", lines.subList(0, lastCheckpoint)) + "\n"
+                + lines.get(lastCheckpoint).substring(0, lines.get(lastCheckpoint).length() - 1);
+        Files.write(journal, torn.getBytes(StandardCharsets.UTF_8));
+
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings.setPageLimit(Integer.MAX_VALUE).setResume(true));
+
+        // The torn group's pages were scraped again, and nothing they had written was lost or kept twice
+        Assert.assertEquals(server.getTotalPages() + tornPages, server.getPageRequestCount());
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).getTotalCount());
+    }
+
+    @Test
+    public void testResumedCountsIncludeEarlierRun() {
+        ScrapeSettings settings = new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setPageLimit(70)
+                .setRequestsPerSecond(0)
+                .setWriteCounts(true);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings.setPageLimit(Integer.MAX_VALUE).setResume(true));
+
+        SyllablePool counted = SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+        Assert.assertEquals(server.getTotalPages(), server.getPageRequestCount());
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), counted.getTotalCount());
+    }
+
+    @Test
+    public void testSnapshotIsOnlyKeptOnResumeIfTheJournalRecordedIt() throws IOException {
+        ScrapeSettings settings = new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setPageLimit(150)
+                .setRequestsPerSecond(0)
+                .setWriteCounts(true);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings);
+
+        // As if the process died after recording the last checkpoint but before moving its snapshot into place,
+        // having already staged the snapshot for a checkpoint it never recorded
+        long checkpoints = Files.readAllLines(Paths.get(DictionaryScraper.SCRAPE_JOURNAL_FILENAME), StandardCharsets.UTF_8)
+                .stream().filter(line -> line.startsWith("C\t")).count();
+        Path corpus = Paths.get(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+        Files.move(corpus, Paths.get(corpus + ".snapshot-" + checkpoints));
+        Files.write(corpus, "stale:1".getBytes(StandardCharsets.UTF_8));
+        Files.write(Paths.get(corpus + ".snapshot-" + (checkpoints + 1)), "lost:5".getBytes(StandardCharsets.UTF_8));
+
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings.setPageLimit(Integer.MAX_VALUE).setResume(true));
+
+        Assert.assertEquals(server.getTotalPages(), server.getPageRequestCount());
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).getTotalCount());
+        Assert.assertFalse(Files.exists(Paths.get(corpus + ".snapshot-" + (checkpoints + 1))));
+    }
+
+    @Test
+    public void testRevalidationOnlyRescrapesChangedPages() throws IOException {
+        ScrapeSettings settings = new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setConcurrency(4)
+                .setRequestsPerSecond(0)
+                .setDeduplicate(true);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings);
+        byte[] corpus = Files.readAllBytes(Paths.get(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME));
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings.setRevalidate(true));
+
+        // Nothing changed on the server, so every page came back 304 and the corpus was left as it was
+        Assert.assertEquals(2 * server.getTotalPages(), server.getPageRequestCount());
+        Assert.assertEquals(server.getTotalPages(), server.getFullPageResponses());
+        Assert.assertEquals(server.getTotalPages(), server.getNotModifiedResponses());
+        Assert.assertArrayEquals(corpus, Files.readAllBytes(Paths.get(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME)));
+    }
+
+    @Test
+    public void testRevalidatedPagesAreNotCountedTwice() throws IOException {
+        ScrapeSettings settings = new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setRequestsPerSecond(0)
+                .setDeduplicate(true);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings);
+        int unique = SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).size();
+        Path sequences = Paths.get(FictionalNameGenerator.SYLLABLE_SEQUENCES_FILENAME);
+        byte[] words = Files.readAllBytes(sequences);
+
+        server.setPageVersion(1);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(settings.setRevalidate(true));
+
+        // Every page was scraped again, yet each syllable is still there once and each word of the sequences once
+        Assert.assertEquals(2 * server.getTotalPages(), server.getFullPageResponses());
+        SyllablePool revalidated = SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+        Assert.assertFalse(revalidated.isWeighted());
+        Assert.assertEquals(unique, revalidated.size());
+        Assert.assertArrayEquals(words, Files.readAllBytes(sequences));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRevalidationIsRefusedForCountedOutput() {
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setWriteCounts(true)
+                .setRevalidate(true));
+    }
+
+    @Test
+    public void testDeduplicatedOutputHoldsEachSyllableOnce() {
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setConcurrency(8)
+                .setRequestsPerSecond(0)
+                .setWriteCounts(true));
+
+        SyllablePool counted = SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), DictionaryScraper.getSyllablesFoundSoFar());
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), counted.getTotalCount());
+        Assert.assertEquals(counted.size(), DictionaryScraper.getUniqueSyllablesFoundSoFar());
+        Assert.assertTrue(counted.size() <= 13);
+
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setRequestsPerSecond(0)
+                .setDeduplicate(true));
+
+        SyllablePool unique = SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+        Assert.assertFalse(unique.isWeighted());
+        Assert.assertEquals(counted.size(), unique.size());
+    }
+
+    @Test
+    public void testFailedRequestsAreRetried() {
+        server.setFailuresPerPage(1, 503);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setConcurrency(4)
+                .setRequestsPerSecond(0)
+                .setRetryBackoffMillis(1));
+
+        ScraperMetrics metrics = DictionaryScraper.getMetrics();
+        Assert.assertEquals(2 * server.getTotalPages(), server.getPageRequestCount());
+        Assert.assertEquals(server.getTotalPages(), metrics.getHttpErrors());
+        Assert.assertEquals(server.getTotalPages(), metrics.getRetries());
+        Assert.assertEquals(server.getTotalPages(), metrics.getPagesFetched());
+        Assert.assertEquals(expectedSyllables(server.getTotalPages()), SyllablePool.fromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).getTotalCount());
+    }
+
+    @Test
+    public void testMissingPagesAreNotRetried() {
+        server.setFailuresPerPage(Integer.MAX_VALUE, 404);
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setPageLimit(10)
+                .setRequestsPerSecond(0)
+                .setRetryBackoffMillis(1));
+
+        ScraperMetrics metrics = DictionaryScraper.getMetrics();
+        Assert.assertEquals(10, server.getPageRequestCount());
+        Assert.assertEquals(10, metrics.getHttpErrors());
+        Assert.assertEquals(0, metrics.getRetries());
+        Assert.assertEquals("HTTP 404", metrics.getLastError().substring(0, 8));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        deleteFile(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+        deleteFile(FictionalNameGenerator.SYLLABLE_SEQUENCES_FILENAME);
+        deleteFile(DictionaryScraper.SCRAPE_JOURNAL_FILENAME);
+        SyllableCorpus.reload();
+    }
+
+    private int expectedSyllables(int pages) {
+        int total = 0;
+        for (int i = 0; i < pages; i++) {
+            total += LocalDictionaryServer.syllablesOfPage(i / 50, i % 50).size();
+        }
+        return total;
+    }
+
+    private void deleteFile(String filename) {
+        File file = new File(filename);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+}
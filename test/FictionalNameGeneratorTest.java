@@ -32,6 +32,69 @@ public class FictionalNameGeneratorTest {
         Assert.assertTrue(FictionalNameGenerator.generateNames(1000, 1, 1, 0.0f).size() == 1000);
     }
 
+    @Test
+    public void testSinkReceivesCapitalisedNames() {
+        List<String> generatedNames = new ArrayList<>();
+        FictionalNameGenerator.generateNames(1000, 3, 5, 0.0f, true,
+                (name, offset, length) -> generatedNames.add(new String(name, offset, length)));
+
+        Assert.assertEquals(1000, generatedNames.size());
+        for (String s : generatedNames) {
+            Assert.assertTrue(Character.isUpperCase(s.charAt(0)));
+            Assert.assertEquals(s.substring(1), s.substring(1).toLowerCase());
+        }
+    }
+
+    @Test
+    public void testStreamAndIteratorAreLazyAndSized() {
+        Assert.assertEquals(1000, FictionalNameGenerator.streamNames(1000, 3, 5, 0.0f).count());
+        Assert.assertEquals(5, FictionalNameGenerator.streamNames(Long.MAX_VALUE, 3, 5, 0.0f).limit(5).count());
+        Assert.assertEquals(100000, FictionalNameGenerator.streamNames(100000, 3, 5, 0.0f).parallel().filter(s -> s.length() > 0).count());
+
+        Iterator<String> iterator = FictionalNameGenerator.iterateNames(3, 3, 5, 0.0f);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(iterator.next().length() > 0);
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testIteratorHandedToAnotherThreadKeepsItsNamesIntact() throws InterruptedException {
+        createCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME, List.of("a", "bcd"));
+        // Started here, then consumed on another thread while this one goes on generating into its own buffer
+        Iterator<String> iterator = FictionalNameGenerator.iterateNames(200000, 1, 1, 0.0f);
+        Assert.assertTrue(iterator.next().matches("a|bcd"));
+
+        List<String> corrupted = Collections.synchronizedList(new ArrayList<>());
+        Thread consumer = new Thread(() -> {
+            while (iterator.hasNext()) {
+                String name = iterator.next();
+                if (!name.matches("a|bcd")) {
+                    corrupted.add(name);
+                }
+            }
+        });
+        consumer.start();
+        while (consumer.isAlive()) {
+            FictionalNameGenerator.generateNames(1000, 4, 6, 0.0f, false, (name, offset, length) -> { });
+        }
+        consumer.join();
+        Assert.assertEquals(List.of(), corrupted);
+    }
+
+    @Test
+    public void testWriteNamesWritesOneNamePerLine() throws IOException {
+        StringWriter writer = new StringWriter();
+        FictionalNameGenerator.writeNames(writer, 1000, 3, 5, 0.0f, false);
+        Assert.assertEquals(1000, writer.toString().split("\n").length);
+
+        StringBuilder builder = new StringBuilder();
+        FictionalNameGenerator.writeNames(builder, 10, 3, 5, 0.0f, true);
+        for (String s : builder.toString().split("\n")) {
+            Assert.assertTrue(Character.isUpperCase(s.charAt(0)));
+        }
+    }
+
     @Test
     public void testAllSyllablesFromCsvAppearInOutput() {
         List<String> syllables = getSyllablesFromCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
@@ -126,6 +189,25 @@ public class FictionalNameGeneratorTest {
         deleteFile(FictionalNameGenerator.SYLLABLES_MANDATORY_FILENAME);
     }
 
+    @Test
+    public void testCorpusSetByHandOutlivesFileChanges() throws Exception {
+        SyllableCorpus.get();
+        SyllablePool syllables = new SyllablePool.Builder().add("pin").build();
+        SyllableCorpus pinned = new SyllableCorpus(syllables, SyllablePool.EMPTY, SyllablePool.EMPTY);
+        SyllableCorpus.set(pinned);
+
+        // Written directly, as createCsv would reload the corpus itself
+        try (PrintWriter writer = new PrintWriter(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME, "UTF-8")) {
+            writer.write("changed");
+        }
+        // Well past the watcher's quiet period
+        Thread.sleep(500);
+        Assert.assertSame(pinned, SyllableCorpus.get());
+
+        SyllableCorpus.reload();
+        Assert.assertNotSame(pinned, SyllableCorpus.get());
+    }
+
     @After
     public void tearDown() {
         cleanOutDirectory();
@@ -151,6 +233,7 @@ public class FictionalNameGeneratorTest {
         deleteFile(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
         deleteFile(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME);
         deleteFile(FictionalNameGenerator.SYLLABLES_MANDATORY_FILENAME);
+        deleteFile(FictionalNameGenerator.SYLLABLE_SEQUENCES_FILENAME);
     }
 
     private void deleteFile(String filename) {
@@ -158,6 +241,7 @@ public class FictionalNameGeneratorTest {
         if (file.exists()) {
             file.delete();
         }
+        SyllableCorpus.reload();
     }
 
     private void createCsv(String filename, List<String> entries) {
@@ -181,5 +265,6 @@ public class FictionalNameGeneratorTest {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        SyllableCorpus.reload();
     }
 }
@@ -0,0 +1,193 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/*
+        Local stand-in for dictionary.com: serves a robots.txt, a sitemap index, gzipped sub-sitemaps and word pages
+    with syllables laid out the way the scraper expects, and counts what was requested.
+*/
+public class LocalDictionaryServer {
+    private static final String[] SYLLABLES = {"dic", "tion", "ar", "y", "ma", "gi", "cal", "ven", "ture", "pro", "con", "al", "er"};
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(32);
+    private final int shards, pagesPerShard;
+    private volatile int pageDelayMillis;
+    private volatile int failuresPerPage, failureStatus;
+    private volatile int pageVersion;
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final AtomicInteger pagesInFlight = new AtomicInteger(), maxPagesInFlight = new AtomicInteger();
+    private final AtomicInteger fullPageResponses = new AtomicInteger(), notModifiedResponses = new AtomicInteger();
+
+    public LocalDictionaryServer(int shards, int pagesPerShard) throws IOException {
+        this.shards = shards;
+        this.pagesPerShard = pagesPerShard;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getTotalPages() {
+        return shards * pagesPerShard;
+    }
+
+    public void setPageDelayMillis(int pageDelayMillis) {
+        this.pageDelayMillis = pageDelayMillis;
+    }
+
+    // The first failures requests for every page are answered with the given status instead of the page
+    public void setFailuresPerPage(int failures, int status) {
+        this.failuresPerPage = failures;
+        this.failureStatus = status;
+    }
+
+    // Changes the ETag of every page, as if all of them had been edited
+    public void setPageVersion(int pageVersion) {
+        this.pageVersion = pageVersion;
+    }
+
+    public int getRequestCount(String path) {
+        AtomicInteger count = requests.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    public int getPageRequestCount() {
+        int total = 0;
+        for (Map.Entry<String, AtomicInteger> e : requests.entrySet()) {
+            if (e.getKey().startsWith("/browse/")) {
+                total += e.getValue().get();
+            }
+        }
+        return total;
+    }
+
+    public int getMaxPagesInFlight() {
+        return maxPagesInFlight.get();
+    }
+
+    public int getFullPageResponses() {
+        return fullPageResponses.get();
+    }
+
+    public int getNotModifiedResponses() {
+        return notModifiedResponses.get();
+    }
+
+    // The syllables of the single word on a page
+    public static List<String> syllablesOfPage(int shard, int page) {
+        List<String> syllables = new ArrayList<>();
+        int seed = shard * 1000 + page;
+        for (int i = 0; i < 2 + seed % 3; i++) {
+            syllables.add(SYLLABLES[(seed * 7 + i * 5) % SYLLABLES.length]);
+        }
+        return syllables;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+
+        try {
+            if (path.equals("/robots.txt")) {
+                respond(exchange, ("User-agent: *\nDisallow: /private/\nSitemap: " + getUrl() + "/sitemap.xml\n").getBytes(StandardCharsets.UTF_8), null);
+            } else if (path.equals("/sitemap.xml")) {
+                StringBuilder index = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+                for (int shard = 0; shard < shards; shard++) {
+                    index.append("<sitemap><loc>").append(getUrl()).append("/sitemaps/").append(shard).append(".xml.gz</loc></sitemap>\n");
+                }
+                index.append("</sitemapindex>\n");
+                respond(exchange, index.toString().getBytes(StandardCharsets.UTF_8), null);
+            } else if (path.startsWith("/sitemaps/")) {
+                int shard = Integer.parseInt(path.substring("/sitemaps/".length(), path.indexOf(".xml.gz")));
+                StringBuilder urlset = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+                for (int page = 0; page < pagesPerShard; page++) {
+                    urlset.append("<url><loc>").append(getUrl()).append("/browse/word-").append(shard).append('-').append(page).append("</loc></url>\n");
+                }
+                urlset.append("</urlset>\n");
+
+                ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+                try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+                    out.write(urlset.toString().getBytes(StandardCharsets.UTF_8));
+                }
+                respond(exchange, gzipped.toByteArray(), null);
+            } else if (path.startsWith("/browse/word-")) {
+                servePage(exchange, path);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void servePage(HttpExchange exchange, String path) throws IOException {
+        int inFlight = pagesInFlight.incrementAndGet();
+        maxPagesInFlight.accumulateAndGet(inFlight, Math::max);
+        try {
+            if (pageDelayMillis > 0) {
+                Thread.sleep(pageDelayMillis);
+            }
+
+            if (getRequestCount(path) <= failuresPerPage) {
+                exchange.sendResponseHeaders(failureStatus, -1);
+                return;
+            }
+
+            String[] parts = path.substring("/browse/word-".length()).split("-");
+            int shard = Integer.parseInt(parts[0]), page = Integer.parseInt(parts[1]);
+            String etag = "\"" + shard + "-" + page + "-" + pageVersion + "\"";
+
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedResponses.incrementAndGet();
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            String html = "<!DOCTYPE html>\n<html>\n<head><title>" + String.join("", syllablesOfPage(shard, page)) + "</title></head>\n"
+                    + "<body>\n<h1 class=\"entry\">" + String.join("", syllablesOfPage(shard, page)) + "</h1>\n"
+                    + "<span class=\"pron\" data-syllable=\"" + String.join("·", syllablesOfPage(shard, page)) + "\">[pron]</span>\n"
+                    + "<p>Some text with a <a href=\"/browse/other\">link</a>.</p>\n</body>\n</html>\n";
+            fullPageResponses.incrementAndGet();
+            respond(exchange, html.getBytes(StandardCharsets.UTF_8), etag);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pagesInFlight.decrementAndGet();
+        }
+    }
+
+    private void respond(HttpExchange exchange, byte[] body, String etag) throws IOException {
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MpmcRingBufferTest {
+    @Test
+    public void testOfferFailsWhenFullAndPollWhenEmpty() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(3);
+        Assert.assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(4));
+        Assert.assertEquals(4, buffer.size());
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        Assert.assertNull(buffer.poll());
+        Assert.assertEquals(0, buffer.size());
+
+        // Wraps around
+        Assert.assertTrue(buffer.offer(5));
+        Assert.assertEquals(Integer.valueOf(5), buffer.poll());
+    }
+
+    @Test
+    public void testEveryElementIsTakenExactlyOnceByConcurrentConsumers() throws InterruptedException {
+        int producers = 3, consumers = 3, perProducer = 200000;
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(64);
+        BitSet[] taken = new BitSet[consumers];
+        AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            BitSet seen = taken[c] = new BitSet();
+            threads.add(new Thread(() -> {
+                while (remaining.get() > 0) {
+                    Integer element = buffer.poll();
+                    if (element == null) {
+                        Thread.yield();
+                    } else {
+                        Assert.assertFalse(seen.get(element));
+                        seen.set(element);
+                        remaining.decrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        BitSet all = new BitSet();
+        int total = 0;
+        for (BitSet seen : taken) {
+            Assert.assertFalse("Taken by two consumers", all.intersects(seen));
+            all.or(seen);
+            total += seen.cardinality();
+        }
+        Assert.assertEquals(producers * perProducer, total);
+        Assert.assertEquals(producers * perProducer, all.nextClearBit(0));
+        Assert.assertNull(buffer.poll());
+    }
+}
@@ -0,0 +1,126 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class NameConstraintsTest {
+    @Before
+    public void setUp() {
+        SyllableCorpus.set(corpus(new String[]{"a", "ka", "lo", "ven", "ture", "mi", "ria", "dor", "xu", "sh"}, new String[0], new String[0]));
+    }
+
+    @Test
+    public void testExactAndRangedLengthsAreHit() {
+        List<String> exact = FictionalNameGenerator.generateNames(2000, 2, 6, 0.0f, false, new NameConstraints().setLength(7));
+        Assert.assertEquals(2000, exact.size());
+        for (String name : exact) {
+            Assert.assertEquals(name, 7, name.length());
+        }
+
+        List<String> ranged = FictionalNameGenerator.generateNames(2000, 1, 5, 0.0f, false, new NameConstraints().setLength(3, 4));
+        Assert.assertEquals(2000, ranged.size());
+        for (String name : ranged) {
+            Assert.assertTrue(name, name.length() >= 3 && name.length() <= 4);
+        }
+    }
+
+    @Test
+    public void testPrefixSuffixAndBannedSubstringsHold() {
+        NameConstraints constraints = new NameConstraints().setPrefix("kal").setSuffix("ria")
+                .addBannedSubstring("oa").addBannedSubstring("mim");
+        List<String> names = FictionalNameGenerator.generateNames(2000, 3, 6, 0.0f, true, constraints);
+        Assert.assertEquals(2000, names.size());
+        for (String name : names) {
+            Assert.assertTrue(name, name.startsWith("Kal") && name.endsWith("ria"));
+            // Banned substrings would mostly straddle two syllables
+            Assert.assertFalse(name, name.contains("oa") || name.contains("mim"));
+        }
+    }
+
+    @Test
+    public void testAllConstraintsTogether() {
+        NameConstraints constraints = new NameConstraints().setLength(8, 9).setPrefix("ve").setSuffix("a").addBannedSubstring("ll");
+        List<String> names = FictionalNameGenerator.generateNames(1000, 2, 6, 0.0f, false, constraints);
+        Assert.assertEquals(1000, names.size());
+        for (String name : names) {
+            Assert.assertTrue(name, name.length() >= 8 && name.length() <= 9 && name.startsWith("ve") && name.endsWith("a") && !name.contains("ll"));
+        }
+    }
+
+    @Test
+    public void testRarePrefixInLargeCorpus() {
+        SplittableRandom random = new SplittableRandom(3);
+        Set<String> syllables = new LinkedHashSet<>();
+        while (syllables.size() < 50000) {
+            StringBuilder syllable = new StringBuilder();
+            for (int i = 1 + random.nextInt(4); i > 0; i--) {
+                syllable.append((char) ('a' + random.nextInt(20)));
+            }
+            syllables.add(syllable.toString());
+        }
+        syllables.add("zy");
+        syllables.add("zyr");
+        SyllableCorpus.set(corpus(syllables.toArray(new String[0]), new String[0], new String[0]));
+
+        // Random draws almost never start with "zy", the trie supplies the few that do
+        List<String> names = FictionalNameGenerator.generateNames(2000, 2, 4, 0.0f, false, new NameConstraints().setPrefix("zyra"));
+        Assert.assertEquals(2000, names.size());
+        for (String name : names) {
+            Assert.assertTrue(name, name.startsWith("zyra"));
+        }
+    }
+
+    @Test
+    public void testMandatorySyllableStillAppears() {
+        SyllableCorpus.set(corpus(new String[]{"ka", "lo", "ven"}, new String[0], new String[]{"zz"}));
+        List<String> names = FictionalNameGenerator.generateNames(500, 2, 5, 0.0f, false, new NameConstraints().setLength(6).addBannedSubstring("kalo"));
+        Assert.assertEquals(500, names.size());
+        for (String name : names) {
+            Assert.assertTrue(name, name.contains("zz") && name.length() == 6 && !name.contains("kalo"));
+        }
+    }
+
+    @Test
+    public void testImpossibleConstraintsStopShort() {
+        // Two to four syllables of one to four characters never reach 40
+        Assert.assertEquals(0, FictionalNameGenerator.generateNames(10, 2, 5, 0.0f, false, new NameConstraints().setLength(40)).size());
+        // Every syllable contains a banned letter
+        NameConstraints banned = new NameConstraints().addBannedSubstrings(List.of("a", "e", "i", "o", "u", "s"));
+        Assert.assertEquals(0, FictionalNameGenerator.generateNames(10, 1, 3, 0.0f, false, banned).size());
+    }
+
+    @Test
+    public void testAutomatonFindsOverlappingPatterns() {
+        SubstringAutomaton automaton = new SubstringAutomaton(List.of("he", "she", "hers"), "rs");
+        int state = SubstringAutomaton.START;
+        StringBuilder flags = new StringBuilder();
+        for (char c : "ushers".toCharArray()) {
+            state = automaton.step(state, c);
+            flags.append(automaton.getFlags(state));
+        }
+        // "she" and "he" end at the fourth character, "hers" and the suffix "rs" at the last
+        Assert.assertEquals("000103", flags.toString());
+    }
+
+    @After
+    public void tearDown() {
+        SyllableCorpus.reload();
+    }
+
+    private static SyllableCorpus corpus(String[] dictionary, String[] occasional, String[] mandatory) {
+        return new SyllableCorpus(pool(dictionary), pool(occasional), pool(mandatory));
+    }
+
+    private static SyllablePool pool(String[] syllables) {
+        SyllablePool.Builder builder = new SyllablePool.Builder();
+        for (String syllable : syllables) {
+            builder.add(syllable);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+public class NameGenerationEngineTest {
+    private static final int BATCH_SIZE = 200000;
+
+    @Before
+    public void setUp() {
+        createCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME,
+                new String[]{"dic", "tion", "ar", "y", "ma", "gi", "cal", "ven", "ture", "pro", "con", "al", "er"});
+    }
+
+    @Test
+    public void testSameSeedGivesSameNamesForAnyThreadCount() {
+        List<String> expected = generateWithThreads(1, 42L, BATCH_SIZE / 10);
+
+        for (int threads = 2; threads <= Runtime.getRuntime().availableProcessors() + 1; threads++) {
+            Assert.assertEquals("Output differs with " + threads + " threads", expected, generateWithThreads(threads, 42L, BATCH_SIZE / 10));
+        }
+    }
+
+    @Test
+    public void testDifferentSeedsGiveDifferentNames() {
+        Assert.assertNotEquals(generateWithThreads(2, 1L, 1000), generateWithThreads(2, 2L, 1000));
+    }
+
+    @After
+    public void tearDown() {
+        File file = new File(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+        if (file.exists()) {
+            file.delete();
+        }
+        SyllableCorpus.reload();
+    }
+
+    private List<String> generateWithThreads(int threads, long seed, int numberOfWords) {
+        NameGenerationEngine engine = new NameGenerationEngine(threads);
+        try {
+            return engine.generateNames(seed, numberOfWords, 1, 6, 0.0f);
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private void createCsv(String filename, String[] entries) {
+        try {
+            PrintWriter writer = new PrintWriter(filename);
+            writer.write(String.join(",\n", entries));
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        SyllableCorpus.reload();
+    }
+}
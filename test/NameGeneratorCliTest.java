@@ -0,0 +1,74 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class NameGeneratorCliTest {
+    @Before
+    public void setUp() {
+        createCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME, new String[]{"dic", "tion", "ar", "y", "ma", "gi", "cal"});
+        createCsv(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME, new String[]{"é", "ñu", "𝔵"});
+        SyllableCorpus.reload();
+    }
+
+    @Test
+    public void testSameSeedGivesSameOutputForAnyThreadCount() throws IOException {
+        byte[] expected = generate(100000, 42L, 1);
+        for (int threads = 2; threads <= 4; threads++) {
+            Assert.assertArrayEquals("Output differs with " + threads + " threads", expected, generate(100000, 42L, threads));
+        }
+        Assert.assertFalse(Arrays.equals(expected, generate(100000, 43L, 2)));
+    }
+
+    @Test
+    public void testWritesOneUtf8NamePerLine() throws IOException {
+        byte[] bytes = generate(50000, 7L, 3);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        List<String> names = List.of(text.split("\n"));
+
+        Assert.assertEquals(50000, names.size());
+        Assert.assertTrue(text.endsWith("\n"));
+        // Occasional syllables outside ASCII, including one outside the BMP, survive the encoding
+        Assert.assertTrue(text.contains("é") && text.contains("ñu") && text.contains("𝔵"));
+        Assert.assertArrayEquals(bytes, text.getBytes(StandardCharsets.UTF_8));
+        for (String name : names) {
+            Assert.assertTrue(name, name.matches("(dic|tion|ar|y|ma|gi|cal|é|ñu|𝔵){2,4}"));
+        }
+    }
+
+    @Test
+    public void testNoNamesWritesNothing() throws IOException {
+        Assert.assertEquals(0, generate(0, 1L, 2).length);
+    }
+
+    @After
+    public void tearDown() {
+        new File(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).delete();
+        new File(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME).delete();
+        SyllableCorpus.reload();
+    }
+
+    private byte[] generate(long count, long seed, int threads) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long bytes = NameGeneratorCli.generate(Channels.newChannel(out), count, 2, 5, 0.3f, false, seed, threads);
+        Assert.assertEquals(out.size(), bytes);
+        return out.toByteArray();
+    }
+
+    private void createCsv(String filename, String[] entries) {
+        try (PrintWriter writer = new PrintWriter(filename, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",\n", entries));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
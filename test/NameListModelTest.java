@@ -0,0 +1,92 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NameListModelTest {
+    @Test
+    public void testNamesAreFoundAcrossChunks() {
+        NameListModel model = new NameListModel();
+        List<NameListModel.Chunk> chunks = new ArrayList<>();
+        int total = NameListModel.NAMES_PER_CHUNK * 2 + 5;
+        for (int i = 0; i < total; i += NameListModel.NAMES_PER_CHUNK) {
+            NameListModel.Chunk chunk = new NameListModel.Chunk();
+            for (int j = i; j < Math.min(total, i + NameListModel.NAMES_PER_CHUNK); j++) {
+                char[] name = ("name" + j).toCharArray();
+                chunk.add(name, 0, name.length);
+            }
+            chunks.add(chunk);
+        }
+        model.addChunks(chunks.subList(0, 1));
+        model.addChunks(chunks.subList(1, chunks.size()));
+
+        Assert.assertEquals(total, model.getSize());
+        Assert.assertEquals("name0", model.getElementAt(0));
+        Assert.assertEquals("name" + NameListModel.NAMES_PER_CHUNK, model.getElementAt(NameListModel.NAMES_PER_CHUNK));
+        Assert.assertEquals("name" + (total - 1), model.getElementAt(total - 1));
+    }
+
+    @Test
+    public void testListIsToldOncePerBatchOfChunks() {
+        NameListModel model = new NameListModel();
+        List<String> events = new ArrayList<>();
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add("added " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add("removed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add("changed");
+            }
+        });
+
+        NameListModel.Chunk full = new NameListModel.Chunk(), partial = new NameListModel.Chunk();
+        char[] name = "ma".toCharArray();
+        for (int i = 0; i < NameListModel.NAMES_PER_CHUNK; i++) {
+            full.add(name, 0, 2);
+        }
+        partial.add(name, 0, 2);
+        model.addChunks(List.of(full, partial));
+        model.clear();
+        model.clear();
+
+        Assert.assertEquals(List.of("added 0-" + NameListModel.NAMES_PER_CHUNK, "removed 0-" + NameListModel.NAMES_PER_CHUNK), events);
+        Assert.assertEquals(0, model.getSize());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOnlyLastChunkMayBePartial() {
+        NameListModel model = new NameListModel();
+        NameListModel.Chunk partial = new NameListModel.Chunk();
+        partial.add("y".toCharArray(), 0, 1);
+        model.addChunks(List.of(partial, new NameListModel.Chunk()));
+    }
+
+    @Test
+    public void testMillionGeneratedNames() {
+        SyllablePool syllables = new SyllablePool.Builder().add("dic").add("tion").add("ar").add("y").build();
+        SyllableCorpus.set(new SyllableCorpus(syllables, SyllablePool.EMPTY, SyllablePool.EMPTY));
+        try {
+            NameListModel model = new NameListModel();
+            for (int generated = 0; generated < 1000000; generated += NameListModel.NAMES_PER_CHUNK) {
+                NameListModel.Chunk chunk = new NameListModel.Chunk();
+                FictionalNameGenerator.generateNames(Math.min(NameListModel.NAMES_PER_CHUNK, 1000000 - generated), 2, 4, 0.0f, true, chunk::add);
+                model.addChunks(List.of(chunk));
+            }
+            Assert.assertEquals(1000000, model.getSize());
+            Assert.assertTrue(model.getElementAt(999999).matches("(Dic|Tion|Ar|Y)(dic|tion|ar|y){1,2}"));
+        } finally {
+            SyllableCorpus.reload();
+        }
+    }
+}
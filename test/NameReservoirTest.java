@@ -0,0 +1,135 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class NameReservoirTest {
+    private NameReservoirs reservoirs;
+
+    @Before
+    public void setUp() {
+        SyllableCorpus.set(corpus(new String[]{"ka", "lo", "mi"}, new String[]{"qu"}, new String[]{"zz"}));
+        reservoirs = new NameReservoirs(1024, 256, 1);
+    }
+
+    @Test
+    public void testTakeWaitsForFirstRefillAndNamesFollowParameters() throws InterruptedException {
+        NameReservoir reservoir = reservoirs.get(2, 4, 0.0f);
+        for (int i = 0; i < 5000; i++) {
+            String name = reservoir.take();
+            Assert.assertTrue(name, name.matches("(ka|lo|mi|zz)+") && name.contains("zz"));
+            Assert.assertTrue(name, name.length() >= 4 && name.length() <= 8);
+        }
+        // Took several refills to hand out more names than fit at once
+        Assert.assertTrue(reservoir.getRefills() >= 4);
+        Assert.assertTrue(reservoir.getRefillLag().getCount() >= 4);
+    }
+
+    @Test
+    public void testPollHitsOnceFilled() throws InterruptedException {
+        NameReservoir reservoir = reservoirs.get(1, 3, 0.0f);
+        waitUntilFull(reservoir);
+
+        for (int i = 0; i < 800; i++) {
+            Assert.assertNotNull(reservoir.poll());
+        }
+        Assert.assertEquals(800, reservoir.getHits());
+        Assert.assertEquals(0, reservoir.getMisses());
+        Assert.assertEquals(1.0, reservoir.getHitRate(), 0.0);
+        // Dropped below the low-water mark, so it is topped up again, possibly while the last polls still ran
+        long deadline = System.currentTimeMillis() + 10000;
+        while (reservoir.getRefills() < 2) {
+            Assert.assertTrue("Never refilled: " + reservoir, System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        Assert.assertTrue(reservoir.toString(), reservoir.size() > 256);
+    }
+
+    @Test
+    public void testSameParametersShareReservoirAndMandatorySetIsPartOfKey() throws InterruptedException {
+        NameReservoir fromFile = reservoirs.get(2, 3, 0.5f);
+        Assert.assertSame(fromFile, reservoirs.get(2, 3, 0.5f));
+        NameReservoir custom = reservoirs.get(2, 3, 0.5f, List.of("xy", "wv", "xy"));
+        Assert.assertSame(custom, reservoirs.get(2, 3, 0.5f, List.of("wv", "xy")));
+        Assert.assertNotSame(fromFile, custom);
+        NameReservoir none = reservoirs.get(2, 3, 0.5f, List.of());
+
+        for (int i = 0; i < 200; i++) {
+            Assert.assertTrue(custom.take().matches("(ka|lo|mi|qu|xy|wv)+"));
+            Assert.assertTrue(none.take().matches("(ka|lo|mi|qu)+"));
+        }
+        Assert.assertEquals(3, reservoirs.getReservoirs().size());
+    }
+
+    @Test
+    public void testReloadedCorpusReplacesBufferedNames() throws InterruptedException {
+        NameReservoir reservoir = reservoirs.get(1, 2, 0.0f, List.of());
+        waitUntilFull(reservoir);
+
+        SyllableCorpus.set(corpus(new String[]{"new"}, new String[0], new String[0]));
+        // Drain past the low-water mark, the refill that follows throws away what was left from the old corpus
+        String name;
+        do {
+            name = reservoir.take();
+        } while (!name.equals("new"));
+        for (int i = 0; i < 2000; i++) {
+            Assert.assertEquals("new", reservoir.take());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTakeFailsOnceShutDownAndEmpty() throws InterruptedException {
+        NameReservoir reservoir = reservoirs.get(1, 1, 0.0f);
+        waitUntilFull(reservoir);
+        reservoirs.shutdown();
+        while (reservoir.poll() != null) {
+        }
+        reservoir.take();
+    }
+
+    @Test(timeout = 10000)
+    public void testTakeFailsWhenRefillsFail() throws InterruptedException {
+        // No dictionary syllables to make names from
+        SyllableCorpus.set(corpus(new String[0], new String[0], new String[0]));
+        NameReservoir reservoir = reservoirs.get(1, 2, 0.0f, List.of());
+        try {
+            reservoir.take();
+            Assert.fail("Took a name from a corpus without syllables");
+        } catch (IllegalStateException e) {
+            Assert.assertNotNull(e.getCause());
+        }
+        Assert.assertNull(reservoir.poll());
+
+        // Once there are syllables again the next take tries again
+        SyllableCorpus.set(corpus(new String[]{"ka"}, new String[0], new String[0]));
+        Assert.assertEquals("ka", reservoir.take());
+    }
+
+    @After
+    public void tearDown() {
+        reservoirs.shutdown();
+        SyllableCorpus.reload();
+    }
+
+    private static void waitUntilFull(NameReservoir reservoir) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (reservoir.size() < reservoir.getCapacity()) {
+            Assert.assertTrue("Never filled: " + reservoir, System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static SyllableCorpus corpus(String[] dictionary, String[] occasional, String[] mandatory) {
+        return new SyllableCorpus(pool(dictionary), pool(occasional), pool(mandatory));
+    }
+
+    private static SyllablePool pool(String[] syllables) {
+        SyllablePool.Builder builder = new SyllablePool.Builder();
+        for (String syllable : syllables) {
+            builder.add(syllable);
+        }
+        return builder.build();
+    }
+}
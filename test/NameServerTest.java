@@ -0,0 +1,115 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class NameServerTest {
+    private NameServer server;
+
+    @BeforeClass
+    public static void createServerFirst() throws IOException {
+        // As when another test started a LocalDictionaryServer first: the JDK has then read its TCP_NODELAY setting
+        // before NameServer could set it, and small answers must not wait on Nagle's algorithm anyway
+        HttpServer.create(new InetSocketAddress(0), 0).stop(0);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        createCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME, new String[]{"dic", "tion", "ar", "y", "ma", "gi", "cal"});
+        createCsv(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME, new String[]{"é", "ñu"});
+        SyllableCorpus.reload();
+        server = NameServer.start(0);
+    }
+
+    @Test
+    public void testServesRequestedNames() throws IOException {
+        List<String> names = List.of(get("/names?count=25&min=2&max=4&frequency=0.5&capitalise=true").split("\n"));
+        Assert.assertEquals(25, names.size());
+        for (String name : names) {
+            Assert.assertTrue(name, name.matches("(Dic|Tion|Ar|Y|Ma|Gi|Cal|É|Ñu)(dic|tion|ar|y|ma|gi|cal|é|ñu){1,2}"));
+        }
+    }
+
+    @Test
+    public void testSeedMakesAnswerRepeatable() throws IOException {
+        Assert.assertEquals(get("/names?count=5000&seed=9"), get("/names?count=5000&seed=9"));
+        Assert.assertNotEquals(get("/names?count=5000&seed=9"), get("/names?count=5000&seed=10"));
+    }
+
+    @Test
+    public void testLargeAnswerIsStreamedWhole() throws IOException {
+        String names = get("/names?count=200000&min=1&max=2");
+        Assert.assertEquals(200000, names.chars().filter(c -> c == '\n').count());
+    }
+
+    @Test
+    public void testBadRequestsAreRefused() throws IOException {
+        Assert.assertEquals(400, status("/names?count=ten", "GET"));
+        Assert.assertEquals(400, status("/names?min=5&max=2", "GET"));
+        Assert.assertEquals(400, status("/names?count=-1", "GET"));
+        Assert.assertEquals(405, status("/names", "POST"));
+        Assert.assertTrue(get("/stats").contains("bad requests 4"));
+    }
+
+    @Test
+    public void testLoadClientMeasuresEveryRequest() throws Exception {
+        NameServerLoadClient.Result result = NameServerLoadClient.run(
+                "http://localhost:" + server.getPort() + "/names?count=10", 4, 200, 1000);
+
+        Assert.assertEquals(0, result.errors);
+        Assert.assertTrue(result.latency.getCount() > 0);
+        Assert.assertTrue(result.bytes > 0);
+        Assert.assertTrue(result.toString(), result.getRequestsPerSecond() > 0);
+        // Far below the 40 ms a delayed ACK holds back a small write for
+        Assert.assertTrue(result.toString(), result.latency.getPercentileMillis(50) < 20);
+        // The server counted the warm-up requests as well
+        Assert.assertTrue(server.getRequestCount() >= result.latency.getCount());
+        Assert.assertTrue(result.latency.getPercentileMillis(99) <= result.latency.getMaxMillis() * 1.125);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        new File(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME).delete();
+        new File(FictionalNameGenerator.SYLLABLES_OCCASIONAL_FILENAME).delete();
+        SyllableCorpus.reload();
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("text/plain; charset=utf-8", connection.getContentType());
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private int status(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        int status = connection.getResponseCode();
+        connection.getErrorStream().readAllBytes();
+        return status;
+    }
+
+    private void createCsv(String filename, String[] entries) {
+        try (PrintWriter writer = new PrintWriter(filename, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",\n", entries));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
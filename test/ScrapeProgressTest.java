@@ -0,0 +1,123 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ScrapeProgressTest {
+    private LocalDictionaryServer server;
+    private final List<ScrapeProgressListener> subscribed = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalDictionaryServer(4, 50);
+    }
+
+    @Test
+    public void testEventsAreCoalescedAndEndWithFinalState() {
+        List<ScrapeProgress> events = Collections.synchronizedList(new ArrayList<>());
+        List<Long> times = Collections.synchronizedList(new ArrayList<>());
+        subscribe(progress -> {
+            events.add(progress);
+            times.add(System.nanoTime());
+        });
+
+        server.setPageDelayMillis(10);
+        long start = System.nanoTime();
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setConcurrency(8)
+                .setRequestsPerSecond(0)
+                .setProgressEventsPerSecond(20));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Hundreds of changes, merged into at most one event per 50 ms plus the first and the last
+        Assert.assertTrue(events.size() + " events in " + seconds + " s", events.size() <= seconds * 20 + 2);
+        for (int i = 2; i < times.size() - 1; i++) {
+            Assert.assertTrue(times.get(i) - times.get(i - 1) >= TimeUnit.MILLISECONDS.toNanos(45));
+        }
+
+        ScrapeProgress last = events.get(events.size() - 1);
+        Assert.assertTrue(last.isFinished());
+        Assert.assertEquals(1, events.stream().filter(ScrapeProgress::isFinished).count());
+        Assert.assertEquals(server.getTotalPages(), last.getPagesRead());
+        Assert.assertEquals(DictionaryScraper.getSyllablesFoundSoFar(), last.getSyllablesFound());
+        Assert.assertEquals(DictionaryScraper.getUniqueSyllablesFoundSoFar(), last.getUniqueSyllablesFound());
+        for (int i = 1; i < events.size(); i++) {
+            Assert.assertTrue(events.get(i).getPagesRead() >= events.get(i - 1).getPagesRead());
+            Assert.assertTrue(events.get(i).getSyllablesFound() >= events.get(i - 1).getSyllablesFound());
+        }
+    }
+
+    @Test
+    public void testEventDispatchThreadAdapterMergesWhileBusy() throws Exception {
+        List<ScrapeProgress> seen = new ArrayList<>();
+        ScrapeProgressListener adapter = ScrapeProgressListener.onEventDispatchThread(progress -> {
+            Assert.assertTrue(SwingUtilities.isEventDispatchThread());
+            seen.add(progress);
+        });
+
+        // Keep the EDT busy while three events arrive, only the latest should get through
+        CountDownLatch release = new CountDownLatch(1);
+        SwingUtilities.invokeLater(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 1; i <= 3; i++) {
+            adapter.progress(new ScrapeProgress(i, 3, 0, i * 10, i, i == 3));
+        }
+        release.countDown();
+        SwingUtilities.invokeAndWait(() -> {
+        });
+
+        Assert.assertEquals(1, seen.size());
+        Assert.assertEquals(3, seen.get(0).getPagesRead());
+        Assert.assertTrue(seen.get(0).isFinished());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopOthers() {
+        List<ScrapeProgress> events = Collections.synchronizedList(new ArrayList<>());
+        subscribe(progress -> {
+            throw new IllegalStateException("Listener failure expected by the test");
+        });
+        subscribe(events::add);
+
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setPageLimit(20)
+                .setRequestsPerSecond(0));
+
+        Assert.assertTrue(events.get(events.size() - 1).isFinished());
+        Assert.assertEquals(20, events.get(events.size() - 1).getPagesRead());
+    }
+
+    @After
+    public void tearDown() {
+        for (ScrapeProgressListener listener : subscribed) {
+            DictionaryScraper.removeProgressListener(listener);
+        }
+        server.stop();
+        for (String filename : new String[]{FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME,
+                FictionalNameGenerator.SYLLABLE_SEQUENCES_FILENAME, DictionaryScraper.SCRAPE_JOURNAL_FILENAME}) {
+            new File(filename).delete();
+        }
+        SyllableCorpus.reload();
+    }
+
+    private void subscribe(ScrapeProgressListener listener) {
+        subscribed.add(listener);
+        DictionaryScraper.addProgressListener(listener);
+    }
+}
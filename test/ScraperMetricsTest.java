@@ -0,0 +1,82 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+public class ScraperMetricsTest {
+    private LocalDictionaryServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalDictionaryServer(2, 50);
+    }
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(1);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform between 1 µs and 10 s
+            values[i] = (long) Math.pow(10, 3 + random.nextDouble() * 7);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1] / 1e6;
+            double estimate = histogram.getPercentileMillis(percentile);
+            Assert.assertTrue(percentile + ": " + estimate + " vs " + exact, estimate >= exact * 0.99 && estimate <= exact * 1.13);
+        }
+        Assert.assertEquals(values.length, histogram.getCount());
+        Assert.assertEquals(values[values.length - 1] / 1e6, histogram.getMaxMillis(), 0.001);
+    }
+
+    @Test
+    public void testScrapeMetricsAreReadableOverJmx() throws Exception {
+        DictionaryScraper.generateSyllablesFromWebsiteFile(new ScrapeSettings()
+                .setDictionaryUrl(server.getUrl())
+                .setConcurrency(4)
+                .setRequestsPerSecond(0));
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ScraperMetrics.OBJECT_NAME);
+        Assert.assertEquals((long) server.getTotalPages(), mBeanServer.getAttribute(name, "PagesFetched"));
+        Assert.assertEquals((long) DictionaryScraper.getSyllablesFoundSoFar(), mBeanServer.getAttribute(name, "SyllablesFound"));
+        Assert.assertTrue((Long) mBeanServer.getAttribute(name, "BytesDownloaded") > 0);
+        Assert.assertEquals(0L, mBeanServer.getAttribute(name, "HttpErrors"));
+        Assert.assertTrue((Double) mBeanServer.getAttribute(name, "PagesPerSecond") > 0);
+        Assert.assertTrue((Double) mBeanServer.getAttribute(name, "BodyP99Millis") >= (Double) mBeanServer.getAttribute(name, "BodyP50Millis"));
+        Assert.assertTrue((Double) mBeanServer.getAttribute(name, "StoreP99Millis") >= (Double) mBeanServer.getAttribute(name, "StoreP50Millis"));
+
+        ScraperMetrics metrics = DictionaryScraper.getMetrics();
+        ScraperMetrics.Snapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(server.getTotalPages(), metrics.getFetchLatency().getCount());
+        Assert.assertEquals(server.getTotalPages(), metrics.getBodyLatency().getCount());
+        Assert.assertEquals(server.getTotalPages(), snapshot.pagesFetched);
+        Assert.assertEquals(0, snapshot.fetchesInFlight);
+        Assert.assertTrue(snapshot.fetchP99Millis >= snapshot.fetchP50Millis);
+        Assert.assertTrue(snapshot.toString(), snapshot.toString().contains(server.getTotalPages() + " pages (0 unchanged)"));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        for (String filename : new String[]{FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME,
+                FictionalNameGenerator.SYLLABLE_SEQUENCES_FILENAME, DictionaryScraper.SCRAPE_JOURNAL_FILENAME}) {
+            File file = new File(filename);
+            if (file.exists()) {
+                file.delete();
+            }
+        }
+        SyllableCorpus.reload();
+    }
+}
@@ -0,0 +1,127 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ShardedScrapeTest {
+    private static final int SHARDS = 3;
+    private static final String MERGED_FILENAME = "ShardedScrapeTest.csv";
+    private static final String COMPILED_FILENAME = "ShardedScrapeTest.corpus";
+
+    private LocalDictionaryServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalDictionaryServer(4, 50);
+    }
+
+    @Test
+    public void testShardsBySitemapMergeIntoWholeCorpus() throws Exception {
+        List<String> shardFiles = scrapeInProcesses("sitemap", "--counts");
+
+        // Every sub-sitemap went to exactly one shard
+        for (int sitemap = 0; sitemap < 4; sitemap++) {
+            Assert.assertEquals(1, server.getRequestCount("/sitemaps/" + sitemap + ".xml.gz"));
+        }
+        assertMergesIntoWholeCorpus(shardFiles);
+    }
+
+    @Test
+    public void testShardsByUrlHashMergeIntoWholeCorpus() throws Exception {
+        List<String> shardFiles = scrapeInProcesses("url-hash");
+
+        // Each shard read all the sitemaps but fetched only its own pages
+        Assert.assertEquals(SHARDS, server.getRequestCount("/sitemaps/0.xml.gz"));
+        for (String shardFile : shardFiles) {
+            Assert.assertTrue(SyllablePool.fromCsv(shardFile).getTotalCount() > 0);
+        }
+        assertMergesIntoWholeCorpus(shardFiles);
+    }
+
+    @Test
+    public void testMergedCountsBeyondIntRangeSurviveWritingOut() throws IOException {
+        List<String> shardFiles = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            String shardFile = ScrapeSettings.shardFilename(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME, shard, SHARDS);
+            Files.write(Paths.get(shardFile), "tion:2000000000,\ner:5".getBytes(StandardCharsets.UTF_8));
+            shardFiles.add(shardFile);
+        }
+
+        SyllablePool merged = CorpusMerger.merge(shardFiles);
+        Assert.assertEquals(6_000_000_000L, merged.getCount(0));
+        Assert.assertEquals(6_000_000_015L, merged.getTotalCount());
+
+        CorpusMerger.writeCsv(MERGED_FILENAME, merged, true);
+        SyllablePool readBack = SyllablePool.fromCsv(MERGED_FILENAME);
+        Assert.assertEquals(2, readBack.size());
+        Assert.assertEquals(6_000_000_000L, readBack.getCount(0));
+    }
+
+    private List<String> scrapeInProcesses(String shardBy, String... options) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        List<String> shardFiles = new ArrayList<>();
+
+        for (int shard = 0; shard < SHARDS; shard++) {
+            List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"), "DictionaryScraper",
+                    "--url", server.getUrl(), "--shard", shard + "/" + SHARDS, "--shard-by", shardBy,
+                    "--concurrency", "4", "--requests-per-second", "0"));
+            command.addAll(List.of(options));
+            processes.add(new ProcessBuilder(command).inheritIO().start());
+            shardFiles.add(ScrapeSettings.shardFilename(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME, shard, SHARDS));
+        }
+        for (Process process : processes) {
+            Assert.assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+            Assert.assertEquals(0, process.exitValue());
+        }
+        return shardFiles;
+    }
+
+    private void assertMergesIntoWholeCorpus(List<String> shardFiles) throws IOException {
+        // No page was scraped twice or missed
+        Assert.assertEquals(server.getTotalPages(), server.getPageRequestCount());
+
+        SyllablePool merged = CorpusMerger.merge(shardFiles);
+        Assert.assertEquals(expectedSyllables(), merged.getTotalCount());
+        Assert.assertTrue(merged.size() <= 13);
+
+        CorpusMerger.writeCsv(MERGED_FILENAME, merged, true);
+        Assert.assertEquals(expectedSyllables(), SyllablePool.fromCsv(MERGED_FILENAME).getTotalCount());
+
+        CorpusMerger.main(new String[]{COMPILED_FILENAME, shardFiles.get(0), shardFiles.get(1), shardFiles.get(2)});
+        Assert.assertEquals(expectedSyllables(), CompiledSyllableCorpus.map(COMPILED_FILENAME).getDictionarySyllables().getTotalCount());
+    }
+
+    private int expectedSyllables() {
+        int total = 0;
+        for (int i = 0; i < server.getTotalPages(); i++) {
+            total += LocalDictionaryServer.syllablesOfPage(i / 50, i % 50).size();
+        }
+        return total;
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        List<String> filenames = new ArrayList<>(List.of(MERGED_FILENAME, COMPILED_FILENAME));
+        for (int shard = 0; shard < SHARDS; shard++) {
+            ScrapeSettings settings = new ScrapeSettings().setShard(shard, SHARDS);
+            filenames.addAll(List.of(settings.getOutputFilename(), settings.getSequencesFilename(), settings.getJournalFilename()));
+        }
+        for (String filename : filenames) {
+            File file = new File(filename);
+            if (file.exists()) {
+                file.delete();
+            }
+        }
+    }
+}
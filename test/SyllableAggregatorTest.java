@@ -0,0 +1,60 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SyllableAggregatorTest {
+    private static final String[] SYLLABLES = {"dic", "tion", "ar", "y", "ma", "gi", "cal", "ven", "ture", "pro", "con", "al", "er"};
+
+    @Test
+    public void testConcurrentAddsAreAllCounted() throws InterruptedException {
+        SyllableAggregator aggregator = new SyllableAggregator();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    aggregator.add(SYLLABLES[i % SYLLABLES.length]);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        SyllablePool snapshot = aggregator.snapshot();
+        Assert.assertEquals(800000, aggregator.getTotalCount());
+        Assert.assertEquals(SYLLABLES.length, aggregator.getUniqueCount());
+        Assert.assertEquals(SYLLABLES.length, snapshot.size());
+        Assert.assertEquals(800000, snapshot.getTotalCount());
+        for (int i = 0; i < snapshot.size(); i++) {
+            // 100000 is not a multiple of 13, the first syllables come round once more per thread
+            int index = Arrays.asList(SYLLABLES).indexOf(snapshot.get(i));
+            Assert.assertEquals(8 * (100000 / SYLLABLES.length + (index < 100000 % SYLLABLES.length ? 1 : 0)), snapshot.getCount(i));
+        }
+    }
+
+    @Test
+    public void testCountsSurviveWritingAndReadingBack() throws IOException {
+        SyllableAggregator aggregator = new SyllableAggregator();
+        aggregator.add("tion", 5);
+        aggregator.add("er");
+        aggregator.add("er");
+
+        StringWriter out = new StringWriter();
+        aggregator.snapshot().writeCsv(out, true);
+
+        SyllableAggregator resumed = new SyllableAggregator();
+        resumed.addCsv(new StringReader(out.toString()));
+        resumed.add("al");
+
+        Assert.assertEquals(8, resumed.getTotalCount());
+        Assert.assertEquals(3, resumed.getUniqueCount());
+    }
+}
@@ -0,0 +1,149 @@
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class SyllableExtractorTest {
+    private static final File SAVED_PAGES = new File("test/pages");
+    private static final Map<String, byte[]> pages = new TreeMap<>();
+
+    @BeforeClass
+    public static void loadSavedPages() throws IOException {
+        File[] files = SAVED_PAGES.listFiles((dir, name) -> name.endsWith(".html"));
+        Assert.assertNotNull("No saved pages in " + SAVED_PAGES.getAbsolutePath(), files);
+        for (File file : files) {
+            pages.put(file.getName(), Files.readAllBytes(file.toPath()));
+        }
+    }
+
+    @Test
+    public void testMatchesLegacyParsingOnSavedPages() throws IOException {
+        for (byte[] page : pages.values()) {
+            Assert.assertEquals(legacyExtract(page), extract(page));
+        }
+        Assert.assertEquals(List.of(List.of("dic", "tion", "ar", "y")), extract(pages.get("dictionary.html")));
+    }
+
+    @Test
+    public void testMatchesLegacyParsingOnRandomInput() throws IOException {
+        String[] pieces = {"a", "B", "z", "é", "·", " ", "-", "\"", "<", "(", "/", "1", "\n", "\r", "\r\n", "😀", "ab", "tion"};
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder page = new StringBuilder();
+            for (int j = random.nextInt(60); j > 0; j--) {
+                page.append(pieces[random.nextInt(pieces.length)]);
+            }
+            byte[] bytes = page.toString().getBytes(StandardCharsets.UTF_8);
+            Assert.assertEquals(page.toString(), legacyExtract(bytes), extract(bytes));
+        }
+    }
+
+    @Test
+    public void testMiddleDotSplitAcrossReads() throws IOException {
+        byte[] page = "<span data-syllable=\"ma·gi·cal\">\n".getBytes(StandardCharsets.UTF_8);
+        // One byte per read, so the two bytes of every '·' arrive separately
+        InputStream trickle = new FilterInputStream(new ByteArrayInputStream(page)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(1, len));
+            }
+        };
+        List<List<String>> words = new ArrayList<>();
+        new SyllableExtractor().extract(trickle, collector(words));
+        Assert.assertEquals(List.of(List.of("ma", "gi", "cal")), words);
+    }
+
+    private List<List<String>> extract(byte[] page) throws IOException {
+        List<List<String>> words = new ArrayList<>();
+        new SyllableExtractor().extract(new ByteArrayInputStream(page), collector(words));
+        return words;
+    }
+
+    private SyllableExtractor.Listener collector(List<List<String>> words) {
+        return new SyllableExtractor.Listener() {
+            private List<String> word = new ArrayList<>();
+
+            @Override
+            public void syllable(char[] chars, int offset, int length) {
+                word.add(new String(chars, offset, length));
+            }
+
+            @Override
+            public void endOfWord() {
+                words.add(word);
+                word = new ArrayList<>();
+            }
+        };
+    }
+
+    // The parsing DictionaryScraper did before SyllableExtractor, kept as the reference to compare against
+    private static List<List<String>> legacyExtract(byte[] page) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(page), StandardCharsets.UTF_8));
+        char[] unwantedChars = {'<', '>', '(', ')', '/'};
+        List<List<String>> words = new ArrayList<>();
+
+        String line;
+        boolean foundSyllables = false;
+
+        while (!foundSyllables && (line = in.readLine()) != null) {
+            if (line.contains("·")) {
+                for (String s : line.split("\"")) {
+                    if (s.contains("·")) {
+                        boolean unwantedCharFound = false;
+
+                        for (char c : unwantedChars) {
+                            if (s.contains(String.valueOf(c))) {
+                                unwantedCharFound = true;
+                            }
+                        }
+
+                        if (!unwantedCharFound) {
+                            List<String> word = new ArrayList<>();
+
+                            for (String t : s.split("·|\\ |\\-")) {
+                                for (char c : t.toCharArray()) {
+                                    if (!Character.isLetter(c)) {
+                                        unwantedCharFound = true;
+                                    }
+                                }
+
+                                if (!unwantedCharFound) {
+                                    t = sanitizeString(t);
+                                    if (t.length() > 0) {
+                                        word.add(t);
+                                    }
+                                }
+                            }
+
+                            if (!word.isEmpty()) {
+                                words.add(word);
+                            }
+                        }
+                    }
+                }
+                foundSyllables = true;
+            }
+        }
+        in.close();
+        return words;
+    }
+
+    private static String sanitizeString(String in) {
+        String out = "";
+        for (int i = 0; i < in.length(); i++) {
+            char c = in.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                out += c;
+            }
+        }
+        return out.toLowerCase().trim();
+    }
+}
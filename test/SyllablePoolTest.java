@@ -0,0 +1,163 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SyllablePoolTest {
+    private static final int SYLLABLE_COUNT = 500000;
+    private static final int UNIQUE_SYLLABLE_COUNT = 20000;
+
+    @Test
+    public void testDuplicatesAreFoldedIntoCounts() {
+        SyllablePool pool = new SyllablePool.Builder().add("tion").add("er").add("tion").add("al").add("tion").build();
+
+        Assert.assertEquals(3, pool.size());
+        Assert.assertEquals(5, pool.getTotalCount());
+        Assert.assertEquals("tion", pool.get(0));
+        Assert.assertEquals(3, pool.getCount(0));
+        Assert.assertEquals(1, pool.getCount(1));
+    }
+
+    @Test
+    public void testCsvParsingMatchesScannerDelimiter() throws IOException {
+        SyllablePool pool = new SyllablePool.Builder().addCsv(new StringReader("dic,\ntion,\nar,\ny,\n,\ntion")).build();
+
+        Assert.assertEquals(4, pool.size());
+        Assert.assertEquals("dic", pool.get(0));
+        Assert.assertEquals("y", pool.get(3));
+        Assert.assertEquals(2, pool.getCount(1));
+    }
+
+    @Test
+    public void testPickIsWeightedByCount() {
+        SyllablePool pool = new SyllablePool.Builder().add("a").add("b").add("b").add("b").build();
+
+        Assert.assertEquals(0, pool.pick(0.0));
+        Assert.assertEquals(0, pool.pick(0.24));
+        Assert.assertEquals(1, pool.pick(0.25));
+        Assert.assertEquals(1, pool.pick(0.999));
+    }
+
+    @Test
+    public void testCountsAreReadFromCsv() throws IOException {
+        SyllablePool pool = new SyllablePool.Builder().addCsv(new StringReader("tion:500,\ner:20,\ntion,\nratio:nal")).build();
+
+        Assert.assertEquals(3, pool.size());
+        Assert.assertEquals(501, pool.getCount(0));
+        Assert.assertEquals(20, pool.getCount(1));
+        Assert.assertEquals("ratio:nal", pool.get(2));
+    }
+
+    @Test
+    public void testCountsSurviveWritingAndReadingBack() throws IOException {
+        SyllablePool pool = new SyllablePool.Builder().add("al").add("al").add("er").build();
+        StringWriter out = new StringWriter();
+        pool.writeCsv(out, true);
+
+        Assert.assertEquals("al:2,\ner:1", out.toString());
+        SyllablePool readBack = new SyllablePool.Builder().addCsv(new StringReader(out.toString())).build();
+        Assert.assertEquals(2, readBack.getCount(0));
+        Assert.assertEquals(3, readBack.getTotalCount());
+    }
+
+    @Test
+    public void testCountsBeyondIntRangeKeepTheirWeight() {
+        SyllablePool pool = new SyllablePool.Builder().add("tion", 1_500_000_000).add("er", 1_500_000_000).add("tion", 1_500_000_000).build();
+
+        Assert.assertEquals(3_000_000_000L, pool.getCount(0));
+        Assert.assertEquals(4_500_000_000L, pool.getTotalCount());
+        int picked = 0;
+        for (int i = 0; i < 3000; i++) {
+            picked += pool.pick(i / 3000.0) == 0 ? 1 : 0;
+        }
+        Assert.assertEquals(2000, picked, 1);
+    }
+
+    @Test
+    public void testAliasTablePicksFollowWeights() {
+        long[] weights = {1, 10, 100, 1000, 0, 5};
+        AliasTable table = AliasTable.fromWeights(weights);
+        int[] picks = new int[weights.length];
+        Random random = new Random(3);
+
+        int draws = 1000000;
+        for (int i = 0; i < draws; i++) {
+            picks[table.pick(random.nextDouble())]++;
+        }
+
+        Assert.assertEquals(0, picks[4]);
+        for (int i = 0; i < weights.length; i++) {
+            double expected = draws * weights[i] / 1116.0;
+            Assert.assertEquals(expected, picks[i], Math.max(50, expected * 0.05));
+        }
+    }
+
+    @Test
+    public void testCopyIntoWritesSyllableChars() {
+        SyllablePool pool = new SyllablePool.Builder().add("ma").add("gi").add("cal").build();
+        char[] word = new char[16];
+
+        int length = pool.copyInto(2, word, pool.copyInto(1, word, pool.copyInto(0, word, 0)));
+
+        Assert.assertEquals("magical", new String(word, 0, length));
+    }
+
+    @Test
+    public void testPoolUsesLessMemoryThanStringList() {
+        String[] unique = new String[UNIQUE_SYLLABLE_COUNT];
+        Random random = new Random(1);
+        for (int i = 0; i < unique.length; i++) {
+            unique[i] = randomSyllable(random);
+        }
+
+        int[] picks = new int[SYLLABLE_COUNT];
+        for (int i = 0; i < picks.length; i++) {
+            picks[i] = random.nextInt(unique.length);
+        }
+
+        long before = usedMemory();
+        SyllablePool.Builder builder = new SyllablePool.Builder();
+        for (int pick : picks) {
+            builder.add(unique[pick]);
+        }
+        SyllablePool pool = builder.build();
+        builder = null;
+        long poolBytes = usedMemory() - before;
+
+        // Mirrors the Scanner based loading, which creates a new String for every syllable in the file
+        before = usedMemory();
+        List<String> list = new ArrayList<>();
+        for (int pick : picks) {
+            list.add(new String(unique[pick].toCharArray()));
+        }
+        long listBytes = usedMemory() - before;
+
+        String sizes = String.format("List<String>: %d bytes, SyllablePool: %d bytes (estimated %d bytes)",
+                listBytes, poolBytes, pool.getFootprintBytes());
+
+        Assert.assertEquals(list.size(), pool.getTotalCount());
+        Assert.assertTrue(sizes, poolBytes * 10 < listBytes);
+        Assert.assertTrue(sizes, pool.getFootprintBytes() * 10 < listBytes);
+    }
+
+    private static String randomSyllable(Random random) {
+        char[] chars = new char[2 + random.nextInt(4)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
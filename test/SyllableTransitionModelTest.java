@@ -0,0 +1,56 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SyllableTransitionModelTest {
+    private static final String SEQUENCES = "dic,tion,ar,y\nma,gi,cal\nven,ture\nma,gi,cian\n";
+
+    @Test
+    public void testTransitionsAreLearntFromSequences() throws IOException {
+        SyllableTransitionModel model = SyllableTransitionModel.fromSequences(new StringReader(SEQUENCES));
+        SyllablePool syllables = model.getSyllables();
+
+        Assert.assertEquals(10, syllables.size());
+        // dic>tion, tion>ar, ar>y, ma>gi, gi>cal, gi>cian, ven>ture and three distinct word starts
+        Assert.assertEquals(10, model.getTransitionCount());
+
+        int dic = indexOf(syllables, "dic");
+        for (double random = 0.0; random < 1.0; random += 0.1) {
+            Assert.assertEquals("tion", syllables.get(model.next(dic, random)));
+        }
+
+        // Nothing follows "y", so the next syllable is one that starts a word, "ma" twice as often as the others
+        int y = indexOf(syllables, "y");
+        Assert.assertEquals("dic", syllables.get(model.next(y, 0.0)));
+        Assert.assertEquals("ma", syllables.get(model.next(y, 0.5)));
+        Assert.assertEquals("ven", syllables.get(model.next(y, 0.9)));
+    }
+
+    @Test
+    public void testNamesOnlyFollowObservedTransitions() throws IOException {
+        SyllableTransitionModel model = SyllableTransitionModel.fromSequences(new StringReader(SEQUENCES));
+        Set<String> possibleNames = new HashSet<>(Arrays.asList("diction", "magi", "venture"));
+
+        List<String> names = model.generateNames(1000, 2, 2, 0.0f);
+
+        Assert.assertEquals(1000, names.size());
+        for (String name : names) {
+            Assert.assertTrue(name, possibleNames.contains(name));
+        }
+    }
+
+    private int indexOf(SyllablePool syllables, String syllable) {
+        for (int i = 0; i < syllables.size(); i++) {
+            if (syllables.get(i).equals(syllable)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SyllableTrieTest {
+    @Test
+    public void testPrefixLookupsMatchALinearScan() {
+        SplittableRandom random = new SplittableRandom(5);
+        SyllablePool.Builder builder = new SyllablePool.Builder();
+        TreeSet<String> syllables = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            String syllable = randomSyllable(random, "abcdé", 1 + random.nextInt(6));
+            syllables.add(syllable);
+            builder.add(syllable, 1 + random.nextInt(3));
+        }
+        SyllablePool pool = builder.build();
+        SyllableTrie trie = pool.getTrie();
+        Assert.assertTrue(trie.getNodeCount() <= 2 * pool.size() + 1);
+        Assert.assertEquals(pool.size(), trie.countWithPrefix(""));
+
+        for (int i = 0; i < 500; i++) {
+            String prefix = randomSyllable(random, "abcdéz", random.nextInt(5));
+            List<String> expected = new ArrayList<>();
+            for (String syllable : syllables.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+                expected.add(syllable);
+            }
+            List<String> found = new ArrayList<>();
+            for (int index : trie.withPrefix(prefix)) {
+                found.add(pool.get(index));
+            }
+            Assert.assertEquals(prefix, expected, found);
+            Assert.assertEquals(expected.size(), trie.countWithPrefix(prefix));
+            Assert.assertEquals(syllables.contains(prefix), trie.contains(prefix));
+            if (trie.contains(prefix)) {
+                Assert.assertEquals(prefix, pool.get(trie.indexOf(prefix)));
+            }
+        }
+        Assert.assertEquals(-1, trie.pickWithPrefix("z", 0.5));
+    }
+
+    @Test
+    public void testPicksWithPrefixFollowCounts() {
+        SyllablePool pool = new SyllablePool.Builder().add("ka", 1).add("kar", 3).add("kol", 6).add("lo", 90).build();
+        SyllableTrie trie = pool.getTrie();
+        int[] picks = new int[pool.size()];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100000; i++) {
+            picks[trie.pickWithPrefix("k", random.nextDouble())]++;
+        }
+        Assert.assertEquals(0, picks[trie.indexOf("lo")]);
+        Assert.assertEquals(10000, picks[trie.indexOf("ka")], 1000);
+        Assert.assertEquals(30000, picks[trie.indexOf("kar")], 1000);
+        Assert.assertEquals(60000, picks[trie.indexOf("kol")], 1000);
+        Assert.assertEquals(trie.indexOf("kar"), trie.pickWithPrefix("kar", 0.99));
+    }
+
+    @Test
+    public void testSegmentationPrefersLikelySplits() {
+        SyllablePool pool = new SyllablePool.Builder().add("dic", 5).add("tion", 5).add("ar", 5).add("y", 5)
+                .add("a", 1).add("r", 1).add("ary", 1).add("dictionary", 1).build();
+        SyllableTrie trie = pool.getTrie();
+
+        Assert.assertEquals(List.of("dictionary"), segmented(pool, trie, "dictionary"));
+        Assert.assertEquals(List.of("ar", "y", "dic"), segmented(pool, trie, "arydic"));
+        Assert.assertEquals(List.of("a", "ar", "y"), segmented(pool, trie, "aary"));
+        Assert.assertEquals(List.of(), segmented(pool, trie, ""));
+        Assert.assertNull(trie.segment("dicx"));
+        Assert.assertNull(trie.segment("ti"));
+    }
+
+    private static List<String> segmented(SyllablePool pool, SyllableTrie trie, String text) {
+        int[] syllables = trie.segment(text);
+        List<String> parts = new ArrayList<>();
+        for (int syllable : syllables) {
+            parts.add(pool.get(syllable));
+        }
+        Assert.assertEquals(text, String.join("", parts));
+        return parts;
+    }
+
+    private static String randomSyllable(SplittableRandom random, String alphabet, int length) {
+        StringBuilder syllable = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            syllable.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return syllable.toString();
+    }
+}
@@ -0,0 +1,82 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+public class UniqueNameGeneratorTest {
+    @Before
+    public void setUp() {
+        createCsv(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME,
+                new String[]{"dic", "tion", "ar", "y", "ma", "gi", "cal", "ven", "ture", "pro", "con", "al", "er"});
+    }
+
+    @Test
+    public void testNamesAreUnique() {
+        UniqueNameGenerator generator = new UniqueNameGenerator(20000);
+        Set<String> names = new HashSet<>();
+
+        long produced = generator.generateNames(20000, 3, 6, 0.0f, false,
+                (name, offset, length) -> Assert.assertTrue(names.add(new String(name, offset, length))));
+
+        Assert.assertEquals(20000, produced);
+        Assert.assertEquals(20000, names.size());
+        Assert.assertFalse(generator.isExhausted());
+        Assert.assertTrue(generator.getRejectedCount() > 0);
+    }
+
+    @Test
+    public void testStopsWhenSyllableSpaceIsExhausted() {
+        // 13 single syllable words at most
+        UniqueNameGenerator generator = new UniqueNameGenerator(1000, 0.0001, true);
+        Set<String> names = new HashSet<>();
+
+        long produced = generator.generateNames(1000, 1, 1, 0.0f, false,
+                (name, offset, length) -> names.add(new String(name, offset, length)));
+
+        Assert.assertTrue(generator.isExhausted());
+        Assert.assertEquals(produced, names.size());
+        Assert.assertTrue(produced <= 13);
+    }
+
+    @Test
+    public void testBloomFilterStaysWithinFalsePositiveBudget() {
+        BloomFilter filter = new BloomFilter(100000, 0.01, false);
+        for (long i = 0; i < 100000; i++) {
+            filter.add(i * 0x9e3779b97f4a7c15L);
+        }
+
+        int falsePositives = 0;
+        for (long i = 100000; i < 200000; i++) {
+            if (filter.mightContain(i * 0x9e3779b97f4a7c15L)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("False positives: " + falsePositives, falsePositives < 100000 * 0.02);
+    }
+
+    @After
+    public void tearDown() {
+        File file = new File(FictionalNameGenerator.SYLLABLES_FROM_WEBSITE_FILENAME);
+        if (file.exists()) {
+            file.delete();
+        }
+        SyllableCorpus.reload();
+    }
+
+    private void createCsv(String filename, String[] entries) {
+        try {
+            PrintWriter writer = new PrintWriter(filename);
+            writer.write(String.join(",\n", entries));
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        SyllableCorpus.reload();
+    }
+}